@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.adapter;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Counters for adaptations per pair of adaptable class and adapter type.
+ * <p>
+ * For each pair, the number of adaptations, the number of cache hits and
+ * <code>null</code> results and a {@link DurationHistogram} of the durations
+ * are recorded. Recording is cheap, so the metrics can be left enabled in
+ * production.
+ * <p>
+ * {@link SlingAdaptable} records its adaptations into the instance set with
+ * {@link SlingAdaptable#setAdaptationMetrics(AdaptationMetrics)}.
+ * {@link AdapterManager} implementations may record into their own instance.
+ * The pairs are recorded by class name, so the metrics do not keep classes,
+ * and with them class loaders, alive after a bundle has been updated.
+ * Classes of the same name from different class loaders share their counters.
+ *
+ * @since 2.3.0 (Sling API Bundle 3.0.3)
+ */
+public final class AdaptationMetrics {
+
+    /**
+     * The counters of a pair of adaptable class and adapter type.
+     */
+    public static final class Statistics {
+
+        private final String adaptableClassName;
+
+        private final String adapterTypeName;
+
+        private final LongAdder cacheHits = new LongAdder();
+
+        private final LongAdder nullResults = new LongAdder();
+
+        private final DurationHistogram durations = new DurationHistogram();
+
+        Statistics(final String adaptableClassName, final String adapterTypeName) {
+            this.adaptableClassName = adaptableClassName;
+            this.adapterTypeName = adapterTypeName;
+        }
+
+        void record(final long nanos, final boolean cacheHit, final boolean nullResult) {
+            if (cacheHit) {
+                this.cacheHits.increment();
+            }
+            if (nullResult) {
+                this.nullResults.increment();
+            }
+            this.durations.record(nanos);
+        }
+
+        /**
+         * The name of the class of the adapted objects.
+         * @return The adaptable class name
+         */
+        public @NotNull String getAdaptableClassName() {
+            return this.adaptableClassName;
+        }
+
+        /**
+         * The name of the type the objects have been adapted to.
+         * @return The adapter type name
+         */
+        public @NotNull String getAdapterTypeName() {
+            return this.adapterTypeName;
+        }
+
+        /**
+         * The number of adaptations.
+         * @return The count
+         */
+        public long getCount() {
+            return this.durations.getCount();
+        }
+
+        /**
+         * The number of adaptations answered from a cache.
+         * @return The number of cache hits
+         */
+        public long getCacheHits() {
+            return this.cacheHits.sum();
+        }
+
+        /**
+         * The ratio of adaptations answered from a cache.
+         * @return The ratio between 0 and 1, 0 if there has been no adaptation
+         */
+        public double getCacheHitRatio() {
+            final long total = this.getCount();
+            return total == 0 ? 0 : (double) this.getCacheHits() / total;
+        }
+
+        /**
+         * The number of adaptations returning <code>null</code>.
+         * @return The number of <code>null</code> results
+         */
+        public long getNullResults() {
+            return this.nullResults.sum();
+        }
+
+        /**
+         * The cumulated duration of the adaptations.
+         * @return The duration in nanoseconds
+         */
+        public long getTotalNanos() {
+            return this.durations.getTotalNanos();
+        }
+
+        /**
+         * The histogram of the durations of the adaptations.
+         * @return The histogram
+         */
+        public @NotNull DurationHistogram getDurations() {
+            return this.durations;
+        }
+
+        @Override
+        public String toString() {
+            return this.adaptableClassName + " -> " + this.adapterTypeName + ": count=" + getCount()
+                    + ", cacheHits=" + getCacheHits() + ", nullResults=" + getNullResults() + ", totalNanos="
+                    + getTotalNanos();
+        }
+    }
+
+    private final Map<String, Map<String, Statistics>> statistics = new ConcurrentHashMap<>();
+
+    /**
+     * Record an adaptation.
+     *
+     * @param adaptableClass The class of the adapted object
+     * @param adapterType The type the object has been adapted to
+     * @param nanos The duration of the adaptation
+     * @param cacheHit Whether the adapter has been taken from a cache
+     * @param nullResult Whether the adaptation returned <code>null</code>
+     */
+    public void record(
+            final @NotNull Class<?> adaptableClass,
+            final @NotNull Class<?> adapterType,
+            final long nanos,
+            final boolean cacheHit,
+            final boolean nullResult) {
+        this.statistics
+                .computeIfAbsent(adaptableClass.getName(), key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(adapterType.getName(), key -> new Statistics(adaptableClass.getName(), key))
+                .record(nanos, cacheHit, nullResult);
+    }
+
+    /**
+     * Get the statistics of a pair of adaptable class and adapter type.
+     *
+     * @param adaptableClass The adaptable class
+     * @param adapterType The adapter type
+     * @return The statistics or <code>null</code> if nothing has been recorded
+     */
+    public @Nullable Statistics getStatistics(
+            final @NotNull Class<?> adaptableClass, final @NotNull Class<?> adapterType) {
+        final Map<String, Statistics> byAdapter = this.statistics.get(adaptableClass.getName());
+        return byAdapter == null ? null : byAdapter.get(adapterType.getName());
+    }
+
+    /**
+     * Get the statistics of all pairs, the ones with the highest cumulated
+     * duration first.
+     *
+     * @param limit The maximum number of pairs to return
+     * @return The statistics
+     * @throws IllegalArgumentException If {@code limit} is negative
+     */
+    public @NotNull List<Statistics> getHotPairs(final int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must be non-negative");
+        }
+        // sort on a snapshot of the totals, as adaptations are recorded concurrently
+        final List<Map.Entry<Statistics, Long>> totals = new ArrayList<>();
+        for (final Map<String, Statistics> byAdapter : this.statistics.values()) {
+            for (final Statistics pair : byAdapter.values()) {
+                totals.add(new AbstractMap.SimpleImmutableEntry<>(pair, pair.getTotalNanos()));
+            }
+        }
+        totals.sort(Map.Entry.comparingByValue(Comparator.reverseOrder()));
+        final List<Statistics> result = new ArrayList<>(Math.min(limit, totals.size()));
+        for (final Map.Entry<Statistics, Long> entry : totals) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(entry.getKey());
+        }
+        return result;
+    }
+
+    /**
+     * Remove all recorded statistics.
+     */
+    public void reset() {
+        this.statistics.clear();
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.adapter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A dispatch table for {@link AdapterFactory} services, to be used by
+ * {@link AdapterManager} implementations.
+ * <p>
+ * The factories are registered with the values of their
+ * {@link AdapterFactory#ADAPTABLE_CLASSES} and {@link AdapterFactory#ADAPTER_CLASSES}
+ * service registration properties. For a pair of concrete adaptable class and
+ * adapter type, the table computes the factories to call once, by walking the
+ * adaptable class, its superclasses and all their interfaces, and caches the
+ * result, including an empty result. Further lookups for the same pair do not
+ * depend on the number of registered factories or the depth of the type hierarchy,
+ * which makes failing adaptations as cheap as successful ones.
+ * <p>
+ * The cache is invalidated whenever a factory is added or removed. It is
+ * associated with the adaptable classes through a {@link ClassValue}, so it
+ * does not prevent adaptable classes from being unloaded.
+ * <p>
+ * Instances of this class are thread-safe.
+ *
+ * @since 2.3.0 (Sling API Bundle 3.0.3)
+ */
+public final class AdapterDispatchTable {
+
+    /**
+     * A registered factory.
+     */
+    private static final class Registration {
+
+        final AdapterFactory factory;
+
+        final Set<String> adapterClasses;
+
+        final int ranking;
+
+        final long order;
+
+        Registration(
+                final AdapterFactory factory, final Set<String> adapterClasses, final int ranking, final long order) {
+            this.factory = factory;
+            this.adapterClasses = adapterClasses;
+            this.ranking = ranking;
+            this.order = order;
+        }
+    }
+
+    /**
+     * The registrations per adaptable class name, each list sorted by ranking.
+     * The map and the lists are never modified but replaced on changes.
+     */
+    private volatile Map<String, List<Registration>> registrations = Collections.emptyMap();
+
+    /**
+     * The factories per adaptable class and adapter type, replaced on changes.
+     */
+    private volatile ClassValue<Map<Class<?>, List<AdapterFactory>>> cache = newCache();
+
+    private long registrationCount;
+
+    private static ClassValue<Map<Class<?>, List<AdapterFactory>>> newCache() {
+        return new ClassValue<Map<Class<?>, List<AdapterFactory>>>() {
+            @Override
+            protected Map<Class<?>, List<AdapterFactory>> computeValue(final Class<?> type) {
+                return new ConcurrentHashMap<>();
+            }
+        };
+    }
+
+    /**
+     * Add an adapter factory. If the factory has already been added, it is replaced.
+     *
+     * @param factory The adapter factory
+     * @param adaptableClasses The names of the classes the factory can adapt
+     * @param adapterClasses The names of the classes the factory can adapt to
+     * @param ranking The ranking of the factory: for the same adaptable class,
+     *            factories with a higher ranking are called first.
+     */
+    public synchronized void addAdapterFactory(
+            final @NotNull AdapterFactory factory,
+            final @NotNull String[] adaptableClasses,
+            final @NotNull String[] adapterClasses,
+            final int ranking) {
+        final Map<String, List<Registration>> updated = copyWithout(factory);
+        final Registration registration = new Registration(
+                factory,
+                Collections.unmodifiableSet(new HashSet<>(Arrays.asList(adapterClasses))),
+                ranking,
+                this.registrationCount++);
+        for (final String adaptableClass : new LinkedHashSet<>(Arrays.asList(adaptableClasses))) {
+            final List<Registration> list =
+                    new ArrayList<>(updated.getOrDefault(adaptableClass, Collections.emptyList()));
+            list.add(registration);
+            // higher ranking first, then in the order of registration
+            list.sort((r1, r2) -> r1.ranking != r2.ranking
+                    ? Integer.compare(r2.ranking, r1.ranking)
+                    : Long.compare(r1.order, r2.order));
+            updated.put(adaptableClass, Collections.unmodifiableList(list));
+        }
+        this.update(updated);
+    }
+
+    /**
+     * Remove an adapter factory.
+     *
+     * @param factory The adapter factory
+     */
+    public synchronized void removeAdapterFactory(final @NotNull AdapterFactory factory) {
+        this.update(copyWithout(factory));
+    }
+
+    private Map<String, List<Registration>> copyWithout(final AdapterFactory factory) {
+        final Map<String, List<Registration>> result = new HashMap<>();
+        for (final Map.Entry<String, List<Registration>> entry : this.registrations.entrySet()) {
+            final List<Registration> list = new ArrayList<>(entry.getValue());
+            list.removeIf(registration -> registration.factory == factory);
+            if (!list.isEmpty()) {
+                result.put(entry.getKey(), Collections.unmodifiableList(list));
+            }
+        }
+        return result;
+    }
+
+    private void update(final Map<String, List<Registration>> updated) {
+        // update the registrations before the cache, so a lookup using the
+        // new cache always sees the new registrations
+        this.registrations = Collections.unmodifiableMap(updated);
+        this.cache = newCache();
+    }
+
+    /**
+     * Get the adapter factories to call for adapting an instance of the given
+     * class to the given type, in the order in which they should be called.
+     * Factories registered for more specific types of the adaptable class come first.
+     *
+     * @param adaptableClass The concrete class of the adaptable
+     * @param adapterClass The adapter type
+     * @return An immutable, possibly empty list of factories
+     */
+    public @NotNull List<AdapterFactory> getAdapterFactories(
+            final @NotNull Class<?> adaptableClass, final @NotNull Class<?> adapterClass) {
+        final Map<Class<?>, List<AdapterFactory>> byAdapter = this.cache.get(adaptableClass);
+        List<AdapterFactory> factories = byAdapter.get(adapterClass);
+        if (factories == null) {
+            factories = computeAdapterFactories(adaptableClass, adapterClass.getName());
+            byAdapter.put(adapterClass, factories);
+        }
+        return factories;
+    }
+
+    /**
+     * Adapt the given object by calling the factories for its class and the
+     * given type until one of them returns an adapter.
+     *
+     * @param <AdapterType> The generic type of the adapter (target) type.
+     * @param adaptable The object to adapt to the adapter type.
+     * @param type The type to which the object is to be adapted.
+     * @return The adapted object or <code>null</code> if no factory adapts the object
+     * @see AdapterManager#getAdapter(Object, Class)
+     */
+    public <AdapterType> @Nullable AdapterType getAdapter(
+            final @NotNull Object adaptable, final @NotNull Class<AdapterType> type) {
+        for (final AdapterFactory factory : getAdapterFactories(adaptable.getClass(), type)) {
+            final AdapterType adapter = factory.getAdapter(adaptable, type);
+            if (adapter != null) {
+                return adapter;
+            }
+        }
+        return null;
+    }
+
+    private List<AdapterFactory> computeAdapterFactories(final Class<?> adaptableClass, final String adapterClass) {
+        final Map<String, List<Registration>> current = this.registrations;
+        final Set<AdapterFactory> result = new LinkedHashSet<>();
+        for (final Class<?> type : getTypeHierarchy(adaptableClass)) {
+            final List<Registration> list = current.get(type.getName());
+            if (list != null) {
+                for (final Registration registration : list) {
+                    if (registration.adapterClasses.contains(adapterClass)) {
+                        result.add(registration.factory);
+                    }
+                }
+            }
+        }
+        if (result.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(new ArrayList<>(result));
+    }
+
+    /**
+     * Returns the class, its interfaces and then the same for each superclass,
+     * each type only once.
+     */
+    private static Set<Class<?>> getTypeHierarchy(final Class<?> adaptableClass) {
+        final Set<Class<?>> types = new LinkedHashSet<>();
+        for (Class<?> current = adaptableClass; current != null; current = current.getSuperclass()) {
+            types.add(current);
+            addInterfaces(current, types);
+        }
+        return types;
+    }
+
+    private static void addInterfaces(final Class<?> type, final Set<Class<?>> types) {
+        for (final Class<?> iface : type.getInterfaces()) {
+            if (types.add(iface)) {
+                addInterfaces(iface, types);
+            }
+        }
+    }
+}
@@ -33,6 +33,9 @@ import org.osgi.annotation.versioning.ProviderType;
  * <code>AdapterManager</code> service from the OSGi service registry to adapt
  * objects to other types.
  * <p>
+ * Implementations can use an {@link AdapterDispatchTable} to find the
+ * factories for an adaptable and an adapter type.
+ * <p>
  * This interface is not intended to be implemented by clients.
  */
 @ProviderType
@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.adapter;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations, which may be recorded from many threads.
+ * <p>
+ * The histogram has fixed buckets: each power of two of nanoseconds is
+ * divided into {@value #SUB_BUCKETS} buckets of equal width, so a percentile
+ * is accurate within 12.5 percent. Durations of 2<sup>41</sup> nanoseconds,
+ * about 37 minutes, or more are counted in the last bucket. The counters
+ * are {@link LongAdder}s, so concurrent recording does not contend.
+ *
+ * @since 2.3.0 (Sling API Bundle 3.0.3)
+ */
+public final class DurationHistogram {
+
+    /**
+     * The number of buckets per power of two.
+     */
+    public static final int SUB_BUCKETS = 8;
+
+    private static final int SUB_BUCKET_BITS = 3;
+
+    /**
+     * The exponent of the highest power of two with own buckets.
+     */
+    private static final int MAX_EXPONENT = 40;
+
+    /** The buckets up to 2^(MAX_EXPONENT + 1) and one for all longer durations. */
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS + 1;
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+    /**
+     * Create an empty histogram.
+     */
+    public DurationHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.buckets[i] = new LongAdder();
+        }
+    }
+
+    static int getBucket(final long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) Math.max(0, nanos);
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        final int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Returns the exclusive upper bound of the durations counted in a bucket.
+     *
+     * @param bucket The bucket index
+     * @return The upper bound in nanoseconds, {@link Long#MAX_VALUE} for the last bucket
+     */
+    static long getBucketUpperBoundNanos(final int bucket) {
+        if (bucket == BUCKETS - 1) {
+            return Long.MAX_VALUE;
+        }
+        if (bucket < SUB_BUCKETS) {
+            return bucket + 1;
+        }
+        final int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        final int subBucket = bucket % SUB_BUCKETS;
+        return (1L << exponent) + (subBucket + 1L) * (1L << (exponent - SUB_BUCKET_BITS));
+    }
+
+    /**
+     * Record a duration.
+     *
+     * @param nanos The duration in nanoseconds, negative values are recorded as 0
+     */
+    public void record(final long nanos) {
+        final long value = Math.max(0, nanos);
+        this.count.increment();
+        this.totalNanos.add(value);
+        this.maxNanos.accumulate(value);
+        this.buckets[getBucket(value)].increment();
+    }
+
+    /**
+     * The number of recorded durations.
+     * @return The count
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * The sum of the recorded durations.
+     * @return The sum in nanoseconds
+     */
+    public long getTotalNanos() {
+        return this.totalNanos.sum();
+    }
+
+    /**
+     * The longest recorded duration.
+     * @return The maximum in nanoseconds, 0 if nothing has been recorded
+     */
+    public long getMaxNanos() {
+        return this.maxNanos.get();
+    }
+
+    /**
+     * The mean of the recorded durations.
+     * @return The mean in nanoseconds, 0 if nothing has been recorded
+     */
+    public double getMeanNanos() {
+        final long total = this.getCount();
+        return total == 0 ? 0 : (double) this.getTotalNanos() / total;
+    }
+
+    /**
+     * Get a percentile of the recorded durations.
+     *
+     * @param percentile The percentile, between 0 and 100
+     * @return The exclusive upper bound of the bucket containing the percentile in
+     *         nanoseconds, but at most the maximum, 0 if nothing has been recorded
+     * @throws IllegalArgumentException If the percentile is not between 0 and 100
+     */
+    public long getPercentileNanos(final double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+        final long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = this.buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long cumulated = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulated += counts[i];
+            if (cumulated >= rank) {
+                return Math.min(getBucketUpperBoundNanos(i), this.getMaxNanos());
+            }
+        }
+        return this.getMaxNanos();
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount() + ", mean=" + (long) getMeanNanos() + "ns, p50=" + getPercentileNanos(50)
+                + "ns, p99=" + getPercentileNanos(99) + "ns, max=" + getMaxNanos() + "ns";
+    }
+}
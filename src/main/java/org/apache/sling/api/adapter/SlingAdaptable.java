@@ -18,8 +18,11 @@
  */
 package org.apache.sling.api.adapter;
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * The <code>SlingAdaptable</code> class is an (abstract) default implementation
@@ -37,6 +40,9 @@ public abstract class SlingAdaptable implements Adaptable {
     /** The adapter manager used for adapting the synthetic resource. */
     private static volatile AdapterManager ADAPTER_MANAGER;
 
+    /** The optional metrics recording the adaptations. */
+    private static volatile AdaptationMetrics ADAPTATION_METRICS;
+
     /**
      * Sets the global {@link AdapterManager} to be used by this class.
      * <p>
@@ -66,15 +72,43 @@ public abstract class SlingAdaptable implements Adaptable {
         }
     }
 
+    /**
+     * Sets the global {@link AdaptationMetrics} recording the duration and the
+     * outcome of each call to {@link #adaptTo(Class)}. Recording is disabled by
+     * default.
+     *
+     * @param metrics The metrics or <code>null</code> to disable recording
+     * @since 2.3.0 (Sling API Bundle 3.0.3)
+     */
+    public static void setAdaptationMetrics(final AdaptationMetrics metrics) {
+        ADAPTATION_METRICS = metrics;
+    }
+
+    /**
+     * Marker for a cached <code>null</code> adapter.
+     */
+    private static final Object NO_ADAPTER = new Object();
+
+    /**
+     * The maximum number of adapters kept in the array representation of the cache.
+     */
+    static final int MAX_INLINE_ADAPTERS = 4;
+
+    private static final AtomicReferenceFieldUpdater<SlingAdaptable, Object> ADAPTERS_CACHE_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(SlingAdaptable.class, Object.class, "adaptersCache");
+
     /**
      * Cached adapters per type.
      * <p>
-     * This map is created on demand by the {@link #adaptTo(Class)} method as a
-     * regular <code>HashMap</code>. This means, that extensions of this class
-     * are intended to be short-lived to not hold on to objects and classes for
-     * too long.
+     * This cache is created on demand by the {@link #adaptTo(Class)} method.
+     * It is either <code>null</code>, an immutable array of alternating types
+     * and adapters for up to {@link #MAX_INLINE_ADAPTERS} entries, or a
+     * <code>ConcurrentHashMap</code>. The array is replaced atomically when an
+     * adapter is added, so reads never lock.
+     * Extensions of this class are still intended to be short-lived to not
+     * hold on to objects and classes for too long.
      */
-    private Map<Class<?>, Object> adaptersCache;
+    private volatile Object adaptersCache;
 
     /**
      * Calls into the registered {@link AdapterManager} to adapt this object to
@@ -83,6 +117,15 @@ public abstract class SlingAdaptable implements Adaptable {
      * This method implements a cache of adapters to improve performance. That
      * is repeated calls to this method with the same class will result in the
      * same object to be returned.
+     * <p>
+     * The cache is read without locking and the {@link AdapterManager} is called
+     * without holding a lock, so slow adapter factories do not block concurrent
+     * adaptations of this object. If several threads adapt to the same type at
+     * the same time, each of them might call the adapter manager, but all of
+     * them return the adapter which has been cached first.
+     * <p>
+     * A <code>null</code> result is only cached if
+     * {@link #isNullAdapterCacheable(Class)} returns <code>true</code> for the type.
      *
      * @param <AdapterType> The generic type to which this resource is adapted
      *            to
@@ -92,24 +135,103 @@ public abstract class SlingAdaptable implements Adaptable {
      * @return The adapter target or <code>null</code> if the resource cannot
      *         adapt to the requested type
      */
-    @SuppressWarnings("unchecked")
     public <AdapterType> AdapterType adaptTo(Class<AdapterType> type) {
-        AdapterType result = null;
-        synchronized (this) {
-            if (adaptersCache != null) {
-                result = (AdapterType) adaptersCache.get(type);
+        final AdaptationMetrics metrics = ADAPTATION_METRICS;
+        if (metrics == null) {
+            return adaptToCached(type);
+        }
+        final long start = System.nanoTime();
+        final boolean cacheHit = getCachedAdapter(type) != null;
+        final AdapterType result = adaptToCached(type);
+        metrics.record(getClass(), type, System.nanoTime() - start, cacheHit, result == null);
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <AdapterType> AdapterType adaptToCached(final Class<AdapterType> type) {
+        Object result = getCachedAdapter(type);
+        if (result == null) {
+            final AdapterManager mgr = ADAPTER_MANAGER;
+            if (mgr == null) {
+                return null;
+            }
+            final AdapterType adapter = mgr.getAdapter(this, type);
+            if (adapter != null) {
+                result = cacheAdapter(type, adapter);
+            } else if (isNullAdapterCacheable(type)) {
+                result = cacheAdapter(type, NO_ADAPTER);
+            } else {
+                return null;
             }
-            if (result == null) {
-                final AdapterManager mgr = ADAPTER_MANAGER;
-                result = (mgr == null ? null : mgr.getAdapter(this, type));
-                if (result != null) {
-                    if (adaptersCache == null) {
-                        adaptersCache = new HashMap<Class<?>, Object>();
-                    }
-                    adaptersCache.put(type, result);
+        }
+        return result == NO_ADAPTER ? null : (AdapterType) result;
+    }
+
+    /**
+     * Decide whether a <code>null</code> result of the {@link AdapterManager}
+     * for the given type is cached, so that further calls to {@link #adaptTo(Class)}
+     * for this type return <code>null</code> without calling the adapter manager.
+     * Extensions should only return <code>true</code> for types this object is
+     * known to never adapt to. The default implementation returns <code>false</code>.
+     *
+     * @param type The type this object could not be adapted to
+     * @return <code>true</code> to cache the <code>null</code> result
+     * @since 2.3.0 (Sling API Bundle 3.0.3)
+     */
+    protected boolean isNullAdapterCacheable(final Class<?> type) {
+        return false;
+    }
+
+    private Object getCachedAdapter(final Class<?> type) {
+        final Object cache = this.adaptersCache;
+        if (cache instanceof Object[]) {
+            final Object[] entries = (Object[]) cache;
+            for (int i = 0; i < entries.length; i += 2) {
+                if (entries[i] == type) {
+                    return entries[i + 1];
                 }
             }
+            return null;
+        }
+        return cache == null ? null : ((Map<?, ?>) cache).get(type);
+    }
+
+    /**
+     * Add the adapter to the cache, unless another thread has cached an adapter
+     * for the type in the meantime.
+     * @return The cached adapter
+     */
+    @SuppressWarnings("unchecked")
+    private Object cacheAdapter(final Class<?> type, final Object adapter) {
+        while (true) {
+            final Object cache = this.adaptersCache;
+            if (cache instanceof ConcurrentMap) {
+                final Object previous = ((ConcurrentMap<Class<?>, Object>) cache).putIfAbsent(type, adapter);
+                return previous == null ? adapter : previous;
+            }
+            final Object[] entries = cache == null ? new Object[0] : (Object[]) cache;
+            for (int i = 0; i < entries.length; i += 2) {
+                if (entries[i] == type) {
+                    return entries[i + 1];
+                }
+            }
+            final Object updated;
+            if (entries.length < 2 * MAX_INLINE_ADAPTERS) {
+                final Object[] newEntries = Arrays.copyOf(entries, entries.length + 2);
+                newEntries[entries.length] = type;
+                newEntries[entries.length + 1] = adapter;
+                updated = newEntries;
+            } else {
+                final ConcurrentMap<Class<?>, Object> map = new ConcurrentHashMap<>();
+                for (int i = 0; i < entries.length; i += 2) {
+                    map.put((Class<?>) entries[i], entries[i + 1]);
+                }
+                map.put(type, adapter);
+                updated = map;
+            }
+            if (ADAPTERS_CACHE_UPDATER.compareAndSet(this, cache, updated)) {
+                return adapter;
+            }
         }
-        return result;
     }
 }
@@ -17,7 +17,7 @@
  * under the License.
  */
 
-@Version("2.2.4")
+@Version("2.3.0")
 package org.apache.sling.api.adapter;
 
 import org.osgi.annotation.versioning.Version;
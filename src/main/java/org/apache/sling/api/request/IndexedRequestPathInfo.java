@@ -0,0 +1,263 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.request;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A {@link RequestPathInfo} over a path string, which only stores the
+ * positions of the resource path, selectors, extension and suffix in the
+ * path. The parts are created on first access and cached, checking for a
+ * selector with {@link #hasSelector(String)} does not create any strings.
+ * <p>
+ * The path is decomposed as described for {@link RequestPathInfo}. Like
+ * {@code String.split}, empty selectors between dots are kept while dots
+ * before the suffix or the end of the path are ignored.
+ * <p>
+ * Instances are immutable apart from the cached parts and can be shared
+ * between threads without synchronization. The cached strings are held in
+ * plain fields using the racy single-check idiom: threads accessing a part
+ * concurrently might each create it, but as {@link String} is immutable every
+ * thread sees a complete and equal value. The selector list is not immutable
+ * in the same way, so it is cached in a <code>volatile</code> field.
+ *
+ * @since 2.9.0 (Sling API Bundle 3.0.3)
+ */
+public final class IndexedRequestPathInfo implements RequestPathInfo {
+
+    private static final int[] NO_SELECTORS = new int[0];
+
+    private final String path;
+
+    private final int resourcePathEnd;
+
+    /** The start and end positions of each selector. */
+    private final int[] selectorBounds;
+
+    private final int extensionStart;
+
+    private final int extensionEnd;
+
+    private final int suffixStart;
+
+    private final ResourceResolver resourceResolver;
+
+    private String resourcePath;
+
+    private String selectorString;
+
+    private String extension;
+
+    private String suffix;
+
+    private volatile List<String> selectorList;
+
+    private IndexedRequestPathInfo(
+            final String path, final int resourcePathEnd, final ResourceResolver resourceResolver) {
+        this.path = path;
+        this.resourcePathEnd = resourcePathEnd;
+        this.resourceResolver = resourceResolver;
+        if (resourcePathEnd == path.length() || path.charAt(resourcePathEnd) == '/') {
+            this.selectorBounds = NO_SELECTORS;
+            this.extensionStart = -1;
+            this.extensionEnd = -1;
+            this.suffixStart = resourcePathEnd == path.length() ? -1 : resourcePathEnd;
+            return;
+        }
+        final int slash = path.indexOf('/', resourcePathEnd);
+        this.suffixStart = slash;
+        final int start = resourcePathEnd + 1;
+        int end = slash == -1 ? path.length() : slash;
+        while (end > start && path.charAt(end - 1) == '.') {
+            end--;
+        }
+        final int lastDot = end > start ? path.lastIndexOf('.', end - 1) : -1;
+        if (end == start) {
+            this.extensionStart = -1;
+            this.extensionEnd = -1;
+        } else {
+            this.extensionStart = lastDot < start ? start : lastDot + 1;
+            this.extensionEnd = end;
+        }
+        if (lastDot < start) {
+            this.selectorBounds = NO_SELECTORS;
+        } else {
+            int count = 1;
+            for (int i = start; i < lastDot; i++) {
+                if (path.charAt(i) == '.') {
+                    count++;
+                }
+            }
+            this.selectorBounds = new int[count * 2];
+            int selectorStart = start;
+            int index = 0;
+            for (int i = start; i <= lastDot; i++) {
+                if (path.charAt(i) == '.') {
+                    this.selectorBounds[index++] = selectorStart;
+                    this.selectorBounds[index++] = i;
+                    selectorStart = i + 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Decompose a path. The resource path ends at the first dot which is not
+     * part of a {@code ./} or {@code ../} segment, or spans the complete path
+     * if there is no such dot.
+     *
+     * @param path The path
+     * @return The request path info
+     */
+    public static @NotNull IndexedRequestPathInfo parse(final @NotNull String path) {
+        final int length = path.length();
+        int dot = path.indexOf('.');
+        while (dot != -1) {
+            final int next = dot + 1;
+            final boolean segment = (next < length && path.charAt(next) == '/')
+                    || (next + 1 < length && path.charAt(next) == '.' && path.charAt(next + 1) == '/');
+            if (!segment) {
+                break;
+            }
+            dot = path.indexOf('.', next);
+        }
+        return new IndexedRequestPathInfo(path, dot == -1 ? length : dot, null);
+    }
+
+    /**
+     * Decompose a path whose resource path is already known, for example
+     * after resolving the longest existing resource.
+     *
+     * @param path The path
+     * @param resourcePathLength The length of the resource path, the character
+     *            after it, if any, must be a dot or a slash
+     * @param resourceResolver The resource resolver to get the
+     *            {@link #getSuffixResource() suffix resource} with, or <code>null</code>
+     * @return The request path info
+     * @throws IllegalArgumentException If the resource path length is invalid
+     */
+    public static @NotNull IndexedRequestPathInfo parse(
+            final @NotNull String path,
+            final int resourcePathLength,
+            final @Nullable ResourceResolver resourceResolver) {
+        if (resourcePathLength < 0
+                || resourcePathLength > path.length()
+                || (resourcePathLength < path.length()
+                        && path.charAt(resourcePathLength) != '.'
+                        && path.charAt(resourcePathLength) != '/')) {
+            throw new IllegalArgumentException("Invalid resource path length " + resourcePathLength + " for " + path);
+        }
+        return new IndexedRequestPathInfo(path, resourcePathLength, resourceResolver);
+    }
+
+    /**
+     * Get the decomposed path.
+     *
+     * @return The path
+     */
+    public @NotNull String getPath() {
+        return this.path;
+    }
+
+    @Override
+    public @NotNull String getResourcePath() {
+        if (this.resourcePath == null) {
+            this.resourcePath = this.path.substring(0, this.resourcePathEnd);
+        }
+        return this.resourcePath;
+    }
+
+    @Override
+    public @Nullable String getExtension() {
+        if (this.extension == null && this.extensionStart != -1) {
+            this.extension = this.path.substring(this.extensionStart, this.extensionEnd);
+        }
+        return this.extension;
+    }
+
+    @Override
+    public @Nullable String getSelectorString() {
+        if (this.selectorString == null && this.selectorBounds.length > 0) {
+            this.selectorString =
+                    this.path.substring(this.selectorBounds[0], this.selectorBounds[this.selectorBounds.length - 1]);
+        }
+        return this.selectorString;
+    }
+
+    @Override
+    public @NotNull String[] getSelectors() {
+        return this.getSelectorList().toArray(new String[0]);
+    }
+
+    @Override
+    public @NotNull List<String> getSelectorList() {
+        List<String> list = this.selectorList;
+        if (list == null) {
+            final String[] selectors = new String[this.selectorBounds.length / 2];
+            for (int i = 0; i < selectors.length; i++) {
+                selectors[i] = this.path.substring(this.selectorBounds[i * 2], this.selectorBounds[i * 2 + 1]);
+            }
+            list = Collections.unmodifiableList(Arrays.asList(selectors));
+            this.selectorList = list;
+        }
+        return list;
+    }
+
+    @Override
+    public boolean hasSelector(final @NotNull String selector) {
+        for (int i = 0; i < this.selectorBounds.length; i += 2) {
+            final int start = this.selectorBounds[i];
+            if (this.selectorBounds[i + 1] - start == selector.length() && this.path.startsWith(selector, start)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public @Nullable String getSuffix() {
+        if (this.suffix == null && this.suffixStart != -1) {
+            this.suffix = this.path.substring(this.suffixStart);
+        }
+        return this.suffix;
+    }
+
+    @Override
+    public @Nullable Resource getSuffixResource() {
+        final String suffixPath = this.getSuffix();
+        if (this.resourceResolver == null
+                || suffixPath == null
+                || suffixPath.trim().isEmpty()) {
+            return null;
+        }
+        return this.resourceResolver.getResource(suffixPath);
+    }
+
+    @Override
+    public String toString() {
+        return "IndexedRequestPathInfo [path=" + this.path + "]";
+    }
+}
@@ -18,8 +18,18 @@
  */
 package org.apache.sling.api.request;
 
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.StringTokenizer;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.apache.sling.api.request.impl.BoundedCache;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * <code>RequestDispatcherOptions</code> are used in the
@@ -34,6 +44,10 @@ import java.util.StringTokenizer;
  *          a "teaser" selector to the request that I'm including here</em>.
  * </li>
  * </ul>
+ * <p>
+ * Code passing the same options string many times, like scripts including
+ * resources, should use {@link #of(String)}, which returns a shared immutable
+ * instance per options string instead of parsing it again.
  */
 public class RequestDispatcherOptions extends HashMap<String, String> {
 
@@ -108,20 +122,44 @@ public class RequestDispatcherOptions extends HashMap<String, String> {
             if (options.indexOf(',') < 0 && options.indexOf('=') < 0) {
                 setForceResourceType(options.trim());
             } else {
-                final StringTokenizer tk = new StringTokenizer(options, ",");
-                while (tk.hasMoreTokens()) {
-                    String entry = tk.nextToken();
-                    int equals = entry.indexOf('=');
-                    if (equals > 0 && equals < entry.length() - 1) {
+                int start = 0;
+                while (start < options.length()) {
+                    int end = options.indexOf(',', start);
+                    if (end < 0) {
+                        end = options.length();
+                    }
+                    int equals = options.indexOf('=', start);
+                    if (equals > start && equals < end - 1) {
                         put(
-                                entry.substring(0, equals).trim(),
-                                entry.substring(equals + 1).trim());
+                                options.substring(start, equals).trim(),
+                                options.substring(equals + 1, end).trim());
                     }
+                    start = end + 1;
                 }
             }
         }
     }
 
+    /**
+     * Returns the options for the given <code>options</code> string, parsed
+     * as described for {@link #RequestDispatcherOptions(String)}.
+     * <p>
+     * The returned instance is immutable and shared by all callers passing
+     * the same string, so the string is only parsed once. All methods
+     * modifying the options throw an {@link UnsupportedOperationException},
+     * use {@link #RequestDispatcherOptions(String)} to get modifiable options.
+     *
+     * @param options The options to set.
+     * @return The immutable options
+     * @since 2.9.0 (Sling API Bundle 3.0.3)
+     */
+    public static @NotNull RequestDispatcherOptions of(@Nullable final String options) {
+        if (options == null || options.isEmpty()) {
+            return Immutable.EMPTY;
+        }
+        return Immutable.CACHE.get(options, Immutable::new);
+    }
+
     /**
      * Sets the {@link #OPT_FORCE_RESOURCE_TYPE} option to the given
      * <code>resourceType</code> if not <code>null</code>.
@@ -247,4 +285,198 @@ public class RequestDispatcherOptions extends HashMap<String, String> {
     public boolean isProtectHeadersOnInclude() {
         return Boolean.valueOf(this.getOrDefault(OPT_PROTECT_HEADERS_ON_INCLUDE, "false"));
     }
+
+    /**
+     * The immutable options returned by {@link RequestDispatcherOptions#of(String)}.
+     * The options are held in fields, the map only serves callers using the
+     * {@link HashMap} methods.
+     */
+    private static final class Immutable extends RequestDispatcherOptions {
+
+        private static final long serialVersionUID = 4527619480745163352L;
+
+        /** The maximum number of cached options. */
+        private static final int MAX_CACHED_OPTIONS = 1024;
+
+        private static final BoundedCache<String, RequestDispatcherOptions> CACHE =
+                new BoundedCache<>(MAX_CACHED_OPTIONS);
+
+        private static final Immutable EMPTY = new Immutable(null);
+
+        private final String forceResourceType;
+
+        private final String addSelectors;
+
+        private final String replaceSelectors;
+
+        private final String replaceSuffix;
+
+        private final String replaceExtension;
+
+        private final boolean protectHeadersOnInclude;
+
+        private final boolean frozen;
+
+        Immutable(final String options) {
+            super(options);
+            this.forceResourceType = super.getForceResourceType();
+            this.addSelectors = super.getAddSelectors();
+            this.replaceSelectors = super.getReplaceSelectors();
+            this.replaceSuffix = super.getReplaceSuffix();
+            this.replaceExtension = super.getReplaceExtension();
+            this.protectHeadersOnInclude = super.isProtectHeadersOnInclude();
+            this.frozen = true;
+        }
+
+        private void checkModifiable() {
+            if (this.frozen) {
+                throw new UnsupportedOperationException("Shared request dispatcher options are immutable");
+            }
+        }
+
+        @Override
+        public String getForceResourceType() {
+            return this.forceResourceType;
+        }
+
+        @Override
+        public String getAddSelectors() {
+            return this.addSelectors;
+        }
+
+        @Override
+        public String getReplaceSelectors() {
+            return this.replaceSelectors;
+        }
+
+        @Override
+        public String getReplaceSuffix() {
+            return this.replaceSuffix;
+        }
+
+        @Override
+        public String getReplaceExtension() {
+            return this.replaceExtension;
+        }
+
+        @Override
+        public boolean isProtectHeadersOnInclude() {
+            return this.protectHeadersOnInclude;
+        }
+
+        @Override
+        public String put(final String key, final String value) {
+            checkModifiable();
+            return super.put(key, value);
+        }
+
+        @Override
+        public void putAll(final Map<? extends String, ? extends String> m) {
+            checkModifiable();
+            super.putAll(m);
+        }
+
+        @Override
+        public String putIfAbsent(final String key, final String value) {
+            checkModifiable();
+            return super.putIfAbsent(key, value);
+        }
+
+        @Override
+        public String remove(final Object key) {
+            checkModifiable();
+            return super.remove(key);
+        }
+
+        @Override
+        public boolean remove(final Object key, final Object value) {
+            checkModifiable();
+            return super.remove(key, value);
+        }
+
+        @Override
+        public String replace(final String key, final String value) {
+            checkModifiable();
+            return super.replace(key, value);
+        }
+
+        @Override
+        public boolean replace(final String key, final String oldValue, final String newValue) {
+            checkModifiable();
+            return super.replace(key, oldValue, newValue);
+        }
+
+        @Override
+        public void replaceAll(final BiFunction<? super String, ? super String, ? extends String> function) {
+            checkModifiable();
+            super.replaceAll(function);
+        }
+
+        @Override
+        public String compute(
+                final String key, final BiFunction<? super String, ? super String, ? extends String> function) {
+            checkModifiable();
+            return super.compute(key, function);
+        }
+
+        @Override
+        public String computeIfAbsent(final String key, final Function<? super String, ? extends String> function) {
+            checkModifiable();
+            return super.computeIfAbsent(key, function);
+        }
+
+        @Override
+        public String computeIfPresent(
+                final String key, final BiFunction<? super String, ? super String, ? extends String> function) {
+            checkModifiable();
+            return super.computeIfPresent(key, function);
+        }
+
+        @Override
+        public String merge(
+                final String key,
+                final String value,
+                final BiFunction<? super String, ? super String, ? extends String> function) {
+            checkModifiable();
+            return super.merge(key, value, function);
+        }
+
+        @Override
+        public void clear() {
+            checkModifiable();
+            super.clear();
+        }
+
+        @Override
+        public Set<String> keySet() {
+            return Collections.unmodifiableSet(super.keySet());
+        }
+
+        @Override
+        public Collection<String> values() {
+            return Collections.unmodifiableCollection(super.values());
+        }
+
+        @Override
+        public Set<Map.Entry<String, String>> entrySet() {
+            // the entries of an unmodifiable map view do not support setValue, unlike the HashMap nodes
+            return Collections.unmodifiableMap(new AbstractMap<String, String>() {
+                        @Override
+                        public Set<Map.Entry<String, String>> entrySet() {
+                            return Immutable.super.entrySet();
+                        }
+                    })
+                    .entrySet();
+        }
+
+        @Override
+        public Object clone() {
+            // a modifiable copy
+            final RequestDispatcherOptions copy = new RequestDispatcherOptions();
+            for (final Map.Entry<String, String> entry : super.entrySet()) {
+                copy.put(entry.getKey(), entry.getValue());
+            }
+            return copy;
+        }
+    }
 }
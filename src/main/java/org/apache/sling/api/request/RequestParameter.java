@@ -21,6 +21,7 @@ package org.apache.sling.api.request;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.file.Path;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -95,6 +96,24 @@ public interface RequestParameter {
     @Nullable
     InputStream getInputStream() throws IOException;
 
+    /**
+     * Returns the path of the file holding the contents of the parameter, if
+     * the contents are stored in a file. This allows to access large uploads
+     * without copying them to the heap, for example by transferring them with
+     * a {@link java.nio.channels.FileChannel}.
+     * <p>
+     * The file is owned by the parameter and must neither be modified nor be
+     * used after the request has been processed.
+     * The default implementation returns <code>null</code>.
+     *
+     * @return The path of the file, or <code>null</code> if the contents are
+     *         not stored in a file.
+     * @since 2.9.0 (Sling API Bundle 3.0.3)
+     */
+    default @Nullable Path getPath() {
+        return null;
+    }
+
     /**
      * Returns the original filename in the client's filesystem, as provided by
      * the browser (or other client software). In most cases, this will be the
@@ -18,6 +18,10 @@
  */
 package org.apache.sling.api.request;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import org.apache.sling.api.resource.Resource;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -210,6 +214,31 @@ public interface RequestPathInfo {
     @NotNull
     String[] getSelectors();
 
+    /**
+     * Returns the selectors decoded from the request URL as an unmodifiable
+     * list. In contrast to {@link #getSelectors()}, implementations may return
+     * the same list on every call, so this is the cheaper method for code
+     * asking for the selectors repeatedly.
+     *
+     * @return The unmodifiable list of selectors, empty if the request has no selectors
+     * @see #getSelectors()
+     * @since 2.9.0 (Sling API Bundle 3.0.3)
+     */
+    default @NotNull List<String> getSelectorList() {
+        return Collections.unmodifiableList(Arrays.asList(getSelectors()));
+    }
+
+    /**
+     * Checks whether the request URL contains the given selector.
+     *
+     * @param selector The selector
+     * @return <code>true</code> if the selector is one of the {@link #getSelectors() selectors}
+     * @since 2.9.0 (Sling API Bundle 3.0.3)
+     */
+    default boolean hasSelector(@NotNull String selector) {
+        return getSelectorList().contains(selector);
+    }
+
     /**
      * Returns the suffix part of the URL or <code>null</code> if the request
      * URL does not contain a suffix.
@@ -20,6 +20,7 @@ package org.apache.sling.api.request;
 
 import java.io.PrintWriter;
 import java.util.Iterator;
+import java.util.function.ObjLongConsumer;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -151,4 +152,18 @@ public interface RequestProgressTracker {
     default long getDuration() {
         return 0;
     }
+
+    /**
+     * Passes the timings logged with {@link #logTimer(String)} and
+     * {@link #logTimer(String, String, Object...)} to the consumer, in the order
+     * in which they have been logged, without formatting any message. This allows
+     * to aggregate the timings of many requests.
+     * The default implementation passes no timings.
+     *
+     * @param consumer Receives the name of the timer and the elapsed time in nanoseconds
+     * @since 2.9.0 (Sling API Bundle 3.0.3)
+     */
+    default void forEachTimer(@NotNull ObjLongConsumer<String> consumer) {
+        // no timings
+    }
 }
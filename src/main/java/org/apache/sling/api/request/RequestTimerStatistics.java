@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.request;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ObjLongConsumer;
+
+import org.apache.sling.api.adapter.DurationHistogram;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Latency histograms of the timers of many requests, per timer name.
+ * <p>
+ * Once a request has been processed, its {@link RequestProgressTracker} is
+ * passed to {@link #record(RequestProgressTracker)}, which adds the timings
+ * logged with {@link RequestProgressTracker#logTimer(String)} to the histogram
+ * of the timer name. This shows which scripts or includes are slow across
+ * the traffic.
+ * <p>
+ * The timings of a tracker are read with
+ * {@link RequestProgressTracker#forEachTimer(ObjLongConsumer)}. Trackers not
+ * implementing it only contribute their {@link RequestProgressTracker#getDuration() duration}
+ * to the {@value #REQUEST_PROCESSING_TIMER} timer, and are counted by
+ * {@link #getTrackersWithoutTimers()}.
+ * <p>
+ * The number of timer names is limited, timings of further names are not
+ * recorded but counted, see {@link #getDroppedTimings()}.
+ *
+ * @since 2.9.0 (Sling API Bundle 3.0.3)
+ */
+public final class RequestTimerStatistics {
+
+    /**
+     * The name of the timer of the complete request processing, which ends
+     * with {@link RequestProgressTracker#done()}.
+     */
+    public static final String REQUEST_PROCESSING_TIMER = "Request Processing";
+
+    /**
+     * The default maximum number of timer names.
+     */
+    public static final int DEFAULT_MAX_TIMERS = 1024;
+
+    private final int maxTimers;
+
+    private final Map<String, DurationHistogram> histograms = new ConcurrentHashMap<>();
+
+    private final LongAdder droppedTimings = new LongAdder();
+
+    private final LongAdder trackersWithoutTimers = new LongAdder();
+
+    /**
+     * Create statistics for up to {@link #DEFAULT_MAX_TIMERS} timer names.
+     */
+    public RequestTimerStatistics() {
+        this(DEFAULT_MAX_TIMERS);
+    }
+
+    /**
+     * Create statistics.
+     *
+     * @param maxTimers The maximum number of timer names
+     * @throws IllegalArgumentException If {@code maxTimers} is less than 1
+     */
+    public RequestTimerStatistics(final int maxTimers) {
+        if (maxTimers < 1) {
+            throw new IllegalArgumentException("maxTimers must be at least 1");
+        }
+        this.maxTimers = maxTimers;
+    }
+
+    /**
+     * Record the timers of a request. This should be called once
+     * {@link RequestProgressTracker#done()} has been called, to include the
+     * timer of the complete request processing.
+     * <p>
+     * If the tracker does not pass a {@value #REQUEST_PROCESSING_TIMER} timing,
+     * for example as it does not implement
+     * {@link RequestProgressTracker#forEachTimer(ObjLongConsumer)}, its
+     * {@link RequestProgressTracker#getDuration() duration} is recorded
+     * under that name instead, if it is known.
+     *
+     * @param tracker The tracker of the request
+     */
+    public void record(final @NotNull RequestProgressTracker tracker) {
+        final TimerCollector collector = new TimerCollector();
+        tracker.forEachTimer(collector);
+        if (collector.timers == 0) {
+            this.trackersWithoutTimers.increment();
+        }
+        if (!collector.requestProcessing) {
+            final long duration = tracker.getDuration();
+            // the default implementation returns 0
+            if (duration > 0) {
+                this.record(REQUEST_PROCESSING_TIMER, duration);
+            }
+        }
+    }
+
+    /**
+     * Record a single timing.
+     *
+     * @param timerName The name of the timer
+     * @param nanos The elapsed time in nanoseconds
+     */
+    public void record(final @NotNull String timerName, final long nanos) {
+        DurationHistogram histogram = this.histograms.get(timerName);
+        if (histogram == null) {
+            if (this.histograms.size() >= this.maxTimers) {
+                this.droppedTimings.increment();
+                return;
+            }
+            histogram = this.histograms.computeIfAbsent(timerName, key -> new DurationHistogram());
+        }
+        histogram.record(nanos);
+    }
+
+    /**
+     * Get the histogram of a timer.
+     *
+     * @param timerName The name of the timer
+     * @return The histogram or <code>null</code> if nothing has been recorded for the timer
+     */
+    public @Nullable DurationHistogram getHistogram(final @NotNull String timerName) {
+        return this.histograms.get(timerName);
+    }
+
+    /**
+     * Get the histograms of all timers by timer name, the ones with the highest total time first.
+     *
+     * @param limit The maximum number of histograms to return
+     * @return The timer names and their histograms
+     * @throws IllegalArgumentException If {@code limit} is negative
+     */
+    public @NotNull List<Map.Entry<String, DurationHistogram>> getSlowestTimers(final int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must be non-negative");
+        }
+        // sort on a snapshot of the totals, as timings are recorded concurrently
+        final List<Map.Entry<Map.Entry<String, DurationHistogram>, Long>> totals = new ArrayList<>();
+        for (final Map.Entry<String, DurationHistogram> entry : this.histograms.entrySet()) {
+            totals.add(new AbstractMap.SimpleImmutableEntry<>(
+                    new AbstractMap.SimpleImmutableEntry<>(entry),
+                    entry.getValue().getTotalNanos()));
+        }
+        totals.sort(Map.Entry.comparingByValue(Comparator.reverseOrder()));
+        final List<Map.Entry<String, DurationHistogram>> result = new ArrayList<>(Math.min(limit, totals.size()));
+        for (final Map.Entry<Map.Entry<String, DurationHistogram>, Long> total : totals) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(total.getKey());
+        }
+        return result;
+    }
+
+    /**
+     * The number of timings which have not been recorded as the maximum
+     * number of timer names has been reached.
+     *
+     * @return The number of dropped timings
+     */
+    public long getDroppedTimings() {
+        return this.droppedTimings.sum();
+    }
+
+    /**
+     * The number of recorded trackers which did not pass any timing to
+     * {@link RequestProgressTracker#forEachTimer(ObjLongConsumer)}, usually
+     * as they do not implement it.
+     *
+     * @return The number of trackers without timings
+     */
+    public long getTrackersWithoutTimers() {
+        return this.trackersWithoutTimers.sum();
+    }
+
+    /**
+     * Remove all recorded timings.
+     */
+    public void reset() {
+        this.histograms.clear();
+        this.droppedTimings.reset();
+        this.trackersWithoutTimers.reset();
+    }
+
+    /**
+     * Records the timings of a tracker.
+     */
+    private final class TimerCollector implements ObjLongConsumer<String> {
+
+        int timers;
+
+        boolean requestProcessing;
+
+        @Override
+        public void accept(final String timerName, final long nanos) {
+            this.timers++;
+            if (REQUEST_PROCESSING_TIMER.equals(timerName)) {
+                this.requestProcessing = true;
+            }
+            record(timerName, nanos);
+        }
+    }
+}
@@ -20,7 +20,9 @@ package org.apache.sling.api.request;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.ObjDoubleConsumer;
 
 import jakarta.servlet.Servlet;
 import jakarta.servlet.http.HttpServletRequest;
@@ -29,6 +31,7 @@ import org.apache.sling.api.SlingJakartaHttpServletRequest;
 import org.apache.sling.api.servlets.HttpConstants;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.osgi.annotation.versioning.ConsumerType;
 
 /**
  * Request related utility methods.
@@ -40,6 +43,33 @@ import org.jetbrains.annotations.Nullable;
  */
 public class RequestUtil {
 
+    /**
+     * Receives the tokens and parameters of a header parsed by
+     * {@link RequestUtil#parseHeader(String, HeaderVisitor)}.
+     *
+     * @since 2.9.0 (Sling API Bundle 3.0.3)
+     */
+    @ConsumerType
+    public interface HeaderVisitor {
+
+        /**
+         * Called for each token of the header.
+         *
+         * @param name The trimmed name of the token
+         */
+        void token(@NotNull String name);
+
+        /**
+         * Called for each parameter of the token passed to the last
+         * call of {@link #token(String)}.
+         *
+         * @param name The trimmed name of the parameter
+         * @param value The trimmed value of the parameter, unquoted if it is a
+         *            quoted string, or <code>null</code> if the parameter has no value
+         */
+        void parameter(@NotNull String name, @Nullable String value);
+    }
+
     /**
      * Parses a header of the form:
      *
@@ -80,6 +110,173 @@ public class RequestUtil {
         return result;
     }
 
+    /**
+     * Parses a header of the form:
+     *
+     * <pre>
+     *            Header = Token { &quot;,&quot; Token } .
+     *            Token = name { &quot;;&quot; Parameter } .
+     *            Parameter = name [ &quot;=&quot; value ] .
+     * </pre>
+     *
+     * The value of a parameter may be a quoted string as defined by
+     * <a href="https://www.rfc-editor.org/rfc/rfc7230#section-3.2.6">RFC 7230 section 3.2.6</a>,
+     * which can contain "," and ";". Tokens without name are ignored together
+     * with their parameters, as are parameters without name.
+     * <p>
+     * In contrast to {@link #parserHeader(String)}, the result is immutable
+     * and preserves the order of the tokens. Quoted values are unquoted, a ","
+     * or ";" within a quoted value does not end the token or parameter, and
+     * empty tokens and parameter names are ignored instead of being mapped to
+     * an empty key.
+     *
+     * @param value The header value
+     * @return An immutable Map indexed by the Token names where the values are
+     *         immutable Maps indexed by parameter name. The value of a parameter
+     *         without value is its name.
+     * @since 2.9.0 (Sling API Bundle 3.0.3)
+     */
+    public static @NotNull Map<String, Map<String, String>> parseHeader(@NotNull String value) {
+        final Map<String, Map<String, String>> result = new LinkedHashMap<String, Map<String, String>>();
+        parseHeader(value, new HeaderVisitor() {
+            private String token;
+
+            private Map<String, String> parameters = Collections.emptyMap();
+
+            @Override
+            public void token(@NotNull String name) {
+                this.token = name;
+                this.parameters = Collections.emptyMap();
+                result.put(name, this.parameters);
+            }
+
+            @Override
+            public void parameter(@NotNull String name, @Nullable String value) {
+                final String parameterValue = value == null ? name : value;
+                if (this.parameters.isEmpty()) {
+                    this.parameters = Collections.singletonMap(name, parameterValue);
+                } else {
+                    if (this.parameters.size() == 1) {
+                        this.parameters = new LinkedHashMap<String, String>(this.parameters);
+                    }
+                    this.parameters.put(name, parameterValue);
+                }
+                result.put(this.token, this.parameters);
+            }
+        });
+        for (final Map.Entry<String, Map<String, String>> entry : result.entrySet()) {
+            if (entry.getValue() instanceof LinkedHashMap) {
+                entry.setValue(Collections.unmodifiableMap(entry.getValue()));
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Parses a header like {@link #parseHeader(String)} does and passes the
+     * tokens and parameters to the visitor, without creating any intermediate
+     * objects apart from the strings passed to the visitor.
+     *
+     * @param value The header value
+     * @param visitor The visitor receiving the tokens and parameters in the order of the header
+     * @since 2.9.0 (Sling API Bundle 3.0.3)
+     */
+    public static void parseHeader(@NotNull String value, @NotNull HeaderVisitor visitor) {
+        final int length = value.length();
+        int pos = 0;
+        while (pos < length) {
+            final int nameEnd = skipTo(value, pos, length, false);
+            final String name = trim(value, pos, nameEnd);
+            pos = nameEnd;
+            // a token without name is ignored with its parameters
+            final boolean emptyName = name.isEmpty();
+            if (!emptyName) {
+                visitor.token(name);
+            }
+            while (pos < length && value.charAt(pos) == ';') {
+                final int parameterEnd = skipTo(value, pos + 1, length, true);
+                final String parameter = trim(value, pos + 1, parameterEnd);
+                pos = parameterEnd;
+                String parameterValue = null;
+                if (pos < length && value.charAt(pos) == '=') {
+                    pos = skipWhitespace(value, pos + 1, length);
+                    if (pos < length && value.charAt(pos) == '"') {
+                        pos = parseQuotedString(value, pos + 1, length, visitor, emptyName ? "" : parameter);
+                        // ignore anything between the closing quote and the next separator
+                        pos = skipTo(value, pos, length, false);
+                        continue;
+                    }
+                    final int valueEnd = skipTo(value, pos, length, false);
+                    parameterValue = trim(value, pos, valueEnd);
+                    pos = valueEnd;
+                }
+                if (!emptyName && !parameter.isEmpty()) {
+                    visitor.parameter(parameter, parameterValue);
+                }
+            }
+            // skip the comma
+            pos++;
+        }
+    }
+
+    /**
+     * Parses a quoted string starting after the opening quote, passes it to the
+     * visitor and returns the position after the closing quote.
+     */
+    private static int parseQuotedString(
+            final String value, int pos, final int length, final HeaderVisitor visitor, final String parameter) {
+        final int start = pos;
+        StringBuilder unescaped = null;
+        while (pos < length && value.charAt(pos) != '"') {
+            if (value.charAt(pos) == '\\' && pos + 1 < length) {
+                if (unescaped == null) {
+                    unescaped = new StringBuilder(value.length() - start);
+                    unescaped.append(value, start, pos);
+                }
+                pos++;
+            }
+            if (unescaped != null) {
+                unescaped.append(value.charAt(pos));
+            }
+            pos++;
+        }
+        if (!parameter.isEmpty()) {
+            visitor.parameter(parameter, unescaped != null ? unescaped.toString() : value.substring(start, pos));
+        }
+        return pos < length ? pos + 1 : pos;
+    }
+
+    /**
+     * Returns the position of the next "," or ";", or "=" if requested.
+     */
+    private static int skipTo(final String value, int pos, final int length, final boolean equals) {
+        while (pos < length) {
+            final char c = value.charAt(pos);
+            if (c == ',' || c == ';' || (equals && c == '=')) {
+                break;
+            }
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int skipWhitespace(final String value, int pos, final int length) {
+        while (pos < length && value.charAt(pos) <= ' ') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static String trim(final String value, int start, int end) {
+        while (start < end && value.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return value.substring(start, end);
+    }
+
     /**
      * Parses an <code>Accept-*</code> header of the form:
      *
@@ -122,6 +319,68 @@ public class RequestUtil {
         return result;
     }
 
+    /**
+     * Parses an <code>Accept-*</code> header with {@link #parseHeader(String, HeaderVisitor)}
+     * and passes each token with the value of its <code>q</code> parameter
+     * to the consumer, without boxing the values. Tokens without or with an
+     * invalid <code>q</code> parameter get the value 1.
+     * <p>
+     * In contrast to {@link #parserAcceptHeader(String)}, token and parameter
+     * names are trimmed, quoted values are supported and empty tokens are ignored.
+     *
+     * @param value The header value
+     * @param consumer The consumer receiving the token names and their <code>q</code> values
+     *            in the order of the header
+     * @see #parseHeader(String, HeaderVisitor)
+     * @since 2.9.0 (Sling API Bundle 3.0.3)
+     */
+    public static void parseAcceptHeader(@NotNull String value, @NotNull ObjDoubleConsumer<String> consumer) {
+        final AcceptHeaderVisitor visitor = new AcceptHeaderVisitor(consumer);
+        parseHeader(value, visitor);
+        visitor.flush();
+    }
+
+    /**
+     * Passes the tokens of an <code>Accept-*</code> header with their <code>q</code> values.
+     */
+    private static final class AcceptHeaderVisitor implements HeaderVisitor {
+
+        private final ObjDoubleConsumer<String> consumer;
+
+        private String token;
+
+        private double q;
+
+        AcceptHeaderVisitor(final ObjDoubleConsumer<String> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void token(@NotNull String name) {
+            flush();
+            this.token = name;
+            this.q = 1.0;
+        }
+
+        @Override
+        public void parameter(@NotNull String name, @Nullable String value) {
+            if ("q".equals(name) && value != null) {
+                try {
+                    this.q = Double.parseDouble(value);
+                } catch (NumberFormatException nfe) {
+                    // don't care
+                }
+            }
+        }
+
+        void flush() {
+            if (this.token != null) {
+                this.consumer.accept(this.token, this.q);
+                this.token = null;
+            }
+        }
+    }
+
     /**
      * Utility method to return a name for the given servlet. This method
      * applies the following algorithm to find a non-<code>null</code>,
@@ -18,6 +18,8 @@
  */
 package org.apache.sling.api.request.builder;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.Charset;
 
 import org.apache.sling.api.request.RequestParameter;
@@ -26,6 +28,7 @@ import org.apache.sling.api.request.builder.impl.RequestParameterImpl;
 import org.apache.sling.api.request.builder.impl.RequestProgressTrackerImpl;
 import org.apache.sling.api.request.builder.impl.SlingHttpServletRequestBuilderImpl;
 import org.apache.sling.api.request.builder.impl.SlingHttpServletResponseBuilderImpl;
+import org.apache.sling.api.request.builder.impl.SpillingRequestParameterImpl;
 import org.apache.sling.api.resource.Resource;
 import org.jetbrains.annotations.NotNull;
 
@@ -68,6 +71,21 @@ public final class Builders {
         return new RequestProgressTrackerImpl();
     }
 
+    /**
+     * Creates a new request progress tracker which keeps the given number of
+     * most recent entries only and formats their messages when they are read.
+     * As the message arguments are formatted later, they must not be modified
+     * after they have been logged.
+     *
+     * @param capacity the maximum number of entries
+     * @return a request progress tracker
+     * @throws IllegalArgumentException if {@code capacity} is less than 1
+     * @since 1.5 (Sling API Bundle 3.0.3)
+     */
+    public static @NotNull RequestProgressTracker newRequestProgressTracker(final int capacity) {
+        return new RequestProgressTrackerImpl(capacity);
+    }
+
     /**
      * Creates a new {@code application/x-www-form-urlencoded} request parameter with UTF-8 encoding
      *
@@ -108,4 +126,27 @@ public final class Builders {
             @NotNull String name, byte @NotNull [] value, String fileName, String contentType) {
         return new RequestParameterImpl(name, value, fileName, contentType);
     }
+
+    /**
+     * Creates a new binary request parameter from a stream, for large uploads.
+     * The contents are kept in memory up to the given threshold and are written to
+     * a temporary file beyond, whose path is returned by {@link RequestParameter#getPath()}.
+     * The caller must close the returned parameter once it is no longer used, which
+     * deletes the temporary file.
+     *
+     * @param name the parameter name
+     * @param content the parameter value, which is read completely but not closed
+     * @param fileName the file name (may be {@code null})
+     * @param contentType the content type (may be {@code null})
+     * @param threshold the maximum number of bytes kept in memory
+     * @return a request parameter
+     * @throws IOException if the content cannot be read or the temporary file cannot be written
+     * @throws IllegalArgumentException if {@code threshold} is negative
+     * @since 1.5 (Sling API Bundle 3.0.3)
+     */
+    public static @NotNull CloseableRequestParameter newRequestParameter(
+            @NotNull String name, @NotNull InputStream content, String fileName, String contentType, int threshold)
+            throws IOException {
+        return new SpillingRequestParameterImpl(name, content, fileName, contentType, threshold);
+    }
 }
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.request.builder;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.apache.sling.api.request.RequestParameter;
+import org.osgi.annotation.versioning.ProviderType;
+
+/**
+ * A {@link RequestParameter} which may hold its contents in a temporary file.
+ * The caller owns the parameter and must close it once the request using it
+ * has been processed, for example with a try-with-resources statement.
+ *
+ * @see Builders#newRequestParameter(String, java.io.InputStream, String, String, int)
+ * @since 1.5 (Sling API Bundle 3.0.3)
+ */
+@ProviderType
+public interface CloseableRequestParameter extends RequestParameter, Closeable {
+
+    /**
+     * Deletes the temporary file, if any. Calling this method more than once
+     * has no further effect.
+     *
+     * @throws IOException If the temporary file cannot be deleted
+     */
+    @Override
+    void close() throws IOException;
+}
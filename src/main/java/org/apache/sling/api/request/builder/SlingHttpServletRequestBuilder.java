@@ -22,6 +22,7 @@ import java.util.Map;
 
 import jakarta.servlet.http.HttpServletRequest;
 import org.apache.sling.api.SlingJakartaHttpServletRequest;
+import org.apache.sling.api.request.RequestParameter;
 import org.apache.sling.api.request.RequestProgressTracker;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -112,6 +113,37 @@ public interface SlingHttpServletRequestBuilder {
     @NotNull
     SlingHttpServletRequestBuilder withParameters(@Nullable Map<String, String[]> parameters);
 
+    /**
+     * Adds a request parameter, for example an uploaded file created with
+     * {@link Builders#newRequestParameter(String, java.io.InputStream, String, String, int)}.
+     * The parameter is only returned by the request parameter methods of the
+     * Sling request like {@link SlingJakartaHttpServletRequest#getRequestParameterMap()},
+     * after the parameters set with {@link #withParameter(String, String)} of the same name.
+     * The request does not take ownership of the parameter, a {@link CloseableRequestParameter}
+     * must still be closed by the caller.
+     * @param parameter the request parameter
+     * @return this object
+     * @throws IllegalArgumentException if {@code parameter} is {@code null}
+     * @since 1.5 (Sling API Bundle 3.0.3)
+     */
+    @NotNull
+    SlingHttpServletRequestBuilder withRequestParameter(@NotNull RequestParameter parameter);
+
+    /**
+     * Selects whether the request parameter map returned by
+     * {@link SlingJakartaHttpServletRequest#getRequestParameterMap()} is created lazily.
+     * A lazy map creates the {@link RequestParameter} instances of a name when
+     * they are accessed, which saves work for requests which only read a few of
+     * many parameters. It contains the same parameters as the default map, but
+     * cannot be modified.
+     * Defaults to {@code false}.
+     * @param lazy {@code true} to create the request parameter map lazily
+     * @return this object
+     * @since 1.5 (Sling API Bundle 3.0.3)
+     */
+    @NotNull
+    SlingHttpServletRequestBuilder withLazyRequestParameterMap(boolean lazy);
+
     /**
      * Uses the request dispatcher from the provided request.
      * @param request the request from which to use the dispatcher
@@ -22,36 +22,59 @@ import java.text.DateFormat;
 import java.text.MessageFormat;
 import java.text.NumberFormat;
 import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import org.apache.sling.api.request.impl.BoundedCache;
 
 /**
  * Fast MessageFormat implementation which is not thread-safe. It is based on the assumptions that
  * <ul>
  *     <li>most formats do not contain format types and styles</li>
  *     <li>do not use escaping</li>
- *     <li>format elements are in order</li>
  * </ul>
  *
  * If one of these assumptions fails, then it falls back to the original {@link MessageFormat}.<br>
+ * The patterns are compiled once into their literal parts and argument indexes, and
+ * the compiled patterns are shared by all instances in a bounded cache.
  * To increase the benefit of this implementation, every instance should be reused as often as possible.
  */
 public class FastMessageFormat {
 
-    // Reusable formats instances. Cannot be static because these classes are not thread safe.
+    /** The maximum number of cached compiled patterns. */
+    static final int MAX_CACHED_PATTERNS = 512;
+
+    /** The maximum capacity of the reused buffer. */
+    private static final int MAX_BUFFER_CAPACITY = 8192;
+
+    private static final BoundedCache<String, CompiledPattern> PATTERNS = new BoundedCache<>(MAX_CACHED_PATTERNS);
+
+    /** The compiled pattern of the patterns which are formatted with {@link MessageFormat}. */
+    private static final CompiledPattern FALLBACK = new CompiledPattern(null, null);
+
+    private StringBuilder buffer = new StringBuilder();
+
+    // the formats used by MessageFormat, which are not thread-safe like this class,
+    // created again when the default format locale changes
+    private Locale locale;
+
     private NumberFormat numberFormat;
+
     private DateFormat dateFormat;
 
-    private NumberFormat getNumberFormat() {
-        if (numberFormat == null) {
-            numberFormat = NumberFormat.getNumberInstance();
-        }
-        return numberFormat;
-    }
+    /**
+     * A pattern split into literal parts and the indexes of the arguments between them.
+     */
+    private static final class CompiledPattern {
+
+        final String[] literals;
+
+        final int[] argumentIndexes;
 
-    private DateFormat getDateFormat() {
-        if (dateFormat == null) {
-            dateFormat = DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT);
+        CompiledPattern(final String[] literals, final int[] argumentIndexes) {
+            this.literals = literals;
+            this.argumentIndexes = argumentIndexes;
         }
-        return dateFormat;
     }
 
     /**
@@ -66,39 +89,113 @@ public class FastMessageFormat {
     public String format(String pattern, Object... arguments) {
         if (arguments == null || arguments.length == 0) {
             return pattern;
-        } else {
-            if (pattern.indexOf('\'') != -1) {
-                // Escaping is not supported, fall back
-                return MessageFormat.format(pattern, arguments);
-            } else {
-                StringBuilder message = new StringBuilder();
-                int previousEnd = 0;
-                for (int i = 0; i < arguments.length; i++) {
-                    String placeholder = '{' + String.valueOf(i);
-                    int placeholderIndex = pattern.indexOf(placeholder);
-                    // -1 or before previous placeholder || format element with type/style
-                    if (placeholderIndex < previousEnd
-                            || pattern.charAt(placeholderIndex + placeholder.length()) != '}') {
-                        // Type, style and random order are not supported, fall back
-                        return MessageFormat.format(pattern, arguments);
-                    } else {
-                        // Format argument if necessary
-                        Object argument = arguments[i];
-                        if (argument instanceof Number) {
-                            argument = getNumberFormat().format(argument);
-                        } else if (argument instanceof Date) {
-                            argument = getDateFormat().format(argument);
-                        }
-
-                        // Append previous part of the string and formatted argument
-                        message.append(pattern.substring(previousEnd, placeholderIndex));
-                        message.append(argument);
-                        previousEnd = placeholderIndex + placeholder.length() + 1;
-                    }
+        }
+        final CompiledPattern compiled = compile(pattern);
+        if (compiled == FALLBACK) {
+            return MessageFormat.format(pattern, arguments);
+        }
+        StringBuilder message = this.buffer;
+        if (message.capacity() > MAX_BUFFER_CAPACITY) {
+            // do not keep the memory of a very long message
+            message = new StringBuilder();
+            this.buffer = message;
+        }
+        message.setLength(0);
+        append(message, compiled, arguments);
+        return message.toString();
+    }
+
+    private void append(final StringBuilder message, final CompiledPattern compiled, final Object[] arguments) {
+        final String[] literals = compiled.literals;
+        final int[] argumentIndexes = compiled.argumentIndexes;
+        final Locale formatLocale = Locale.getDefault(Locale.Category.FORMAT);
+        if (!formatLocale.equals(this.locale)) {
+            this.locale = formatLocale;
+            this.numberFormat = null;
+            this.dateFormat = null;
+        }
+        for (int i = 0; i < argumentIndexes.length; i++) {
+            message.append(literals[i]);
+            final int index = argumentIndexes[i];
+            if (index >= arguments.length) {
+                // like MessageFormat, keep the format element of a missing argument
+                message.append('{').append(index).append('}');
+                continue;
+            }
+            // Format argument if necessary
+            final Object argument = arguments[index];
+            if (argument instanceof Number) {
+                if (this.numberFormat == null) {
+                    this.numberFormat = NumberFormat.getNumberInstance(formatLocale);
+                }
+                message.append(this.numberFormat.format(argument));
+            } else if (argument instanceof Date) {
+                if (this.dateFormat == null) {
+                    this.dateFormat = DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT, formatLocale);
                 }
-                message.append(pattern.substring(previousEnd, pattern.length()));
-                return message.toString();
+                this.dateFormat.setTimeZone(TimeZone.getDefault());
+                message.append(this.dateFormat.format(argument));
+            } else {
+                message.append(argument);
+            }
+        }
+        message.append(literals[argumentIndexes.length]);
+    }
+
+    /**
+     * Returns the compiled pattern, {@link #FALLBACK} if it uses escaping, format types or styles.
+     */
+    private static CompiledPattern compile(final String pattern) {
+        return PATTERNS.get(pattern, FastMessageFormat::doCompile);
+    }
+
+    private static CompiledPattern doCompile(final String pattern) {
+        if (pattern.indexOf('\'') != -1) {
+            // Escaping is not supported, fall back
+            return FALLBACK;
+        }
+        int count = 0;
+        for (int i = 0; i < pattern.length(); i++) {
+            if (pattern.charAt(i) == '{') {
+                count++;
+            }
+        }
+        final String[] literals = new String[count + 1];
+        final int[] argumentIndexes = new int[count];
+        int previousEnd = 0;
+        for (int i = 0; i < count; i++) {
+            final int start = pattern.indexOf('{', previousEnd);
+            int end = start + 1;
+            int index = 0;
+            while (end < pattern.length()
+                    && end - start <= 4
+                    && pattern.charAt(end) >= '0'
+                    && pattern.charAt(end) <= '9') {
+                index = index * 10 + (pattern.charAt(end) - '0');
+                end++;
+            }
+            if (end == start + 1 || end == pattern.length() || pattern.charAt(end) != '}') {
+                // Type, style or invalid format elements are not supported, fall back
+                return FALLBACK;
+            }
+            literals[i] = pattern.substring(previousEnd, start);
+            argumentIndexes[i] = index;
+            previousEnd = end + 1;
+        }
+        literals[count] = pattern.substring(previousEnd);
+        if (literals[count].indexOf('}') != -1 || containsClosingBrace(literals, count)) {
+            // Unbalanced braces, let MessageFormat decide
+            return FALLBACK;
+        }
+        return new CompiledPattern(literals, argumentIndexes);
+    }
+
+    private static boolean containsClosingBrace(final String[] literals, final int count) {
+        for (int i = 0; i < count; i++) {
+            if (literals[i].indexOf('}') != -1) {
+                return true;
             }
         }
+        return false;
     }
 }
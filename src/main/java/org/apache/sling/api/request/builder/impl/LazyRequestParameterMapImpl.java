@@ -0,0 +1,296 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.request.builder.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.sling.api.request.RequestParameter;
+import org.apache.sling.api.request.RequestParameterMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Read-only implementation of {@link RequestParameterMap} creating the
+ * {@link RequestParameter} instances of a name on the first access.
+ * <p>
+ * The parameters are either given as an {@code application/x-www-form-urlencoded}
+ * string or as already decoded values. For an encoded string the constructor
+ * only indexes the positions of the values per parameter name, and each
+ * parameter decodes its value on the first call of
+ * {@link RequestParameter#getString()} and caches it.
+ */
+public class LazyRequestParameterMapImpl extends AbstractMap<String, RequestParameter[]>
+        implements RequestParameterMap {
+
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private static final String[] NO_VALUES = new String[0];
+
+    private final String encoded;
+
+    private final Charset charset;
+
+    /** The start and end positions of the values per parameter name. */
+    private final Map<String, int[]> index = new LinkedHashMap<>();
+
+    /** The already decoded values per parameter name. */
+    private final Map<String, String[]> decoded;
+
+    private final Map<String, List<RequestParameter>> additional;
+
+    private final Map<String, RequestParameter[]> parameters = new HashMap<>();
+
+    private Set<Map.Entry<String, RequestParameter[]>> entrySet;
+
+    public LazyRequestParameterMapImpl(@Nullable final String encoded, @NotNull final Charset charset) {
+        this(encoded, charset, Collections.emptyMap());
+    }
+
+    /**
+     * @param encoded The parameters, in {@code application/x-www-form-urlencoded} format
+     * @param charset The charset of the encoded parameters
+     * @param additional Additional parameters, returned after the encoded ones of the same name
+     */
+    public LazyRequestParameterMapImpl(
+            @Nullable final String encoded,
+            @NotNull final Charset charset,
+            @NotNull final Map<String, List<RequestParameter>> additional) {
+        this.encoded = encoded == null ? "" : encoded;
+        this.charset = charset;
+        this.decoded = Collections.emptyMap();
+        this.additional = additional;
+        final int length = this.encoded.length();
+        int start = 0;
+        while (start < length) {
+            int end = this.encoded.indexOf('&', start);
+            if (end == -1) {
+                end = length;
+            }
+            if (end > start) {
+                final int eq = this.encoded.indexOf('=', start);
+                final int nameEnd = eq == -1 || eq > end ? end : eq;
+                final String name = this.decode(start, nameEnd);
+                final int valueStart = nameEnd == end ? end : nameEnd + 1;
+                int[] positions = this.index.get(name);
+                if (positions == null) {
+                    positions = new int[] {valueStart, end};
+                } else {
+                    positions = Arrays.copyOf(positions, positions.length + 2);
+                    positions[positions.length - 2] = valueStart;
+                    positions[positions.length - 1] = end;
+                }
+                this.index.put(name, positions);
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * @param decoded The decoded parameter values, which are not copied
+     * @param additional Additional parameters, returned after the decoded ones of the same name
+     */
+    public LazyRequestParameterMapImpl(
+            @NotNull final Map<String, String[]> decoded,
+            @NotNull final Map<String, List<RequestParameter>> additional) {
+        this.encoded = "";
+        this.charset = StandardCharsets.UTF_8;
+        this.decoded = decoded;
+        this.additional = additional;
+    }
+
+    private String decode(final int start, final int end) {
+        final String value = this.encoded.substring(start, end);
+        if (value.indexOf('%') == -1 && value.indexOf('+') == -1) {
+            return value;
+        }
+        try {
+            return URLDecoder.decode(value, this.charset);
+        } catch (final IllegalArgumentException e) {
+            // invalid escape sequence, use the value as-is
+            return value;
+        }
+    }
+
+    @Override
+    public RequestParameter getValue(final String name) {
+        final RequestParameter[] params = this.getValues(name);
+        return (params != null && params.length > 0) ? params[0] : null;
+    }
+
+    @Override
+    public RequestParameter[] getValues(final String name) {
+        RequestParameter[] params = this.parameters.get(name);
+        if (params == null && this.containsKey(name)) {
+            final int[] positions = this.index.getOrDefault(name, NO_POSITIONS);
+            final String[] values = this.decoded.getOrDefault(name, NO_VALUES);
+            final List<RequestParameter> more = this.additional.getOrDefault(name, Collections.emptyList());
+            params = new RequestParameter[positions.length / 2 + values.length + more.size()];
+            int count = 0;
+            for (int i = 0; i < positions.length; i += 2) {
+                params[count++] = new LazyRequestParameter(name, positions[i], positions[i + 1]);
+            }
+            for (final String value : values) {
+                params[count++] = new RequestParameterImpl(name, value, this.charset);
+            }
+            for (final RequestParameter parameter : more) {
+                params[count++] = parameter;
+            }
+            this.parameters.put(name, params);
+        }
+        return params;
+    }
+
+    @Override
+    public RequestParameter[] get(final Object key) {
+        return key instanceof String ? this.getValues((String) key) : null;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return this.index.containsKey(key) || this.decoded.containsKey(key) || this.additional.containsKey(key);
+    }
+
+    @Override
+    public Set<Map.Entry<String, RequestParameter[]>> entrySet() {
+        if (this.entrySet == null) {
+            final Set<String> names = new LinkedHashSet<>(this.index.keySet());
+            names.addAll(this.decoded.keySet());
+            names.addAll(this.additional.keySet());
+            this.entrySet = new AbstractSet<Map.Entry<String, RequestParameter[]>>() {
+                @Override
+                public Iterator<Map.Entry<String, RequestParameter[]>> iterator() {
+                    final Iterator<String> iterator = names.iterator();
+                    return new Iterator<Map.Entry<String, RequestParameter[]>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Map.Entry<String, RequestParameter[]> next() {
+                            final String name = iterator.next();
+                            return new SimpleImmutableEntry<>(name, getValues(name));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return names.size();
+                }
+            };
+        }
+        return this.entrySet;
+    }
+
+    /**
+     * A form field, decoded on demand.
+     */
+    private final class LazyRequestParameter implements RequestParameter {
+
+        private final String name;
+
+        private final int start;
+
+        private final int end;
+
+        private String value;
+
+        private byte[] bytes;
+
+        LazyRequestParameter(final String name, final int start, final int end) {
+            this.name = name;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public @NotNull String getName() {
+            return this.name;
+        }
+
+        @Override
+        public boolean isFormField() {
+            return true;
+        }
+
+        @Override
+        public String getContentType() {
+            // like RequestParameterImpl for application/x-www-form-urlencoded
+            return null;
+        }
+
+        @Override
+        public long getSize() {
+            return this.get().length;
+        }
+
+        @Override
+        public byte[] get() {
+            if (this.bytes == null) {
+                this.bytes = this.getString().getBytes(charset);
+            }
+            return this.bytes;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(this.get());
+        }
+
+        @Override
+        public String getFileName() {
+            return null;
+        }
+
+        @Override
+        public @NotNull String getString() {
+            if (this.value == null) {
+                this.value = decode(this.start, this.end);
+            }
+            return this.value;
+        }
+
+        @Override
+        public @NotNull String getString(final @NotNull String encoding) throws UnsupportedEncodingException {
+            return new String(this.get(), encoding);
+        }
+
+        @Override
+        public String toString() {
+            return this.getString();
+        }
+    }
+}
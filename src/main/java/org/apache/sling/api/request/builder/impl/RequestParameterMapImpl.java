@@ -18,7 +18,10 @@
  */
 package org.apache.sling.api.request.builder.impl;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.sling.api.request.RequestParameter;
@@ -42,6 +45,21 @@ public class RequestParameterMapImpl extends LinkedHashMap<String, RequestParame
         }
     }
 
+    public RequestParameterMapImpl(
+            @NotNull final Map<String, String[]> params,
+            @NotNull final Map<String, List<RequestParameter>> requestParams) {
+        this(params);
+        for (final Map.Entry<String, List<RequestParameter>> entry : requestParams.entrySet()) {
+            final RequestParameter[] existing = this.get(entry.getKey());
+            final List<RequestParameter> values = new ArrayList<>();
+            if (existing != null) {
+                values.addAll(Arrays.asList(existing));
+            }
+            values.addAll(entry.getValue());
+            this.put(entry.getKey(), values.toArray(new RequestParameter[0]));
+        }
+    }
+
     @Override
     public RequestParameter getValue(final String name) {
         RequestParameter[] params = getValues(name);
@@ -19,13 +19,16 @@
 package org.apache.sling.api.request.builder.impl;
 
 import java.io.PrintWriter;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.ObjLongConsumer;
 
 import org.apache.sling.api.request.RequestProgressTracker;
+import org.apache.sling.api.request.RequestTimerStatistics;
+import org.jetbrains.annotations.NotNull;
 
 /**
  * The <code>SlingRequestProgressTracker</code> class provides the
@@ -87,6 +90,15 @@ import org.apache.sling.api.request.RequestProgressTracker;
  * <li>The absolute time of the timer in parenthesis.
  * <li>The entry message
  * </ol>
+ * <p>
+ * <b>Ring Mode</b>
+ * <p>
+ * A tracker created with {@link #RequestProgressTrackerImpl(int)} keeps the
+ * given number of most recent entries only, in preallocated arrays. It records
+ * the raw events, that is the time stamp, the id of the timer name and the
+ * message format with its arguments, and formats nothing until the messages
+ * are requested through {@link #getMessages()} or {@link #dump(PrintWriter)}.
+ * Therefore the arguments must not be modified after they have been logged.
  */
 public class RequestProgressTrackerImpl implements RequestProgressTracker {
 
@@ -94,7 +106,7 @@ public class RequestProgressTrackerImpl implements RequestProgressTracker {
      * The name of the timer tracking the processing time of the complete
      * process.
      */
-    private static final String REQUEST_PROCESSING_TIMER = "Request Processing";
+    private static final String REQUEST_PROCESSING_TIMER = RequestTimerStatistics.REQUEST_PROCESSING_TIMER;
 
     /** Prefix for log messages */
     private static final String LOG_PREFIX = "LOG ";
@@ -108,6 +120,16 @@ public class RequestProgressTrackerImpl implements RequestProgressTracker {
     /** The leading nanosecond number is left-padded with white-space to this width. */
     private static final int PADDING_WIDTH = 7;
 
+    /** The initial capacity of an unbounded tracker. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Entry kinds */
+    private static final byte KIND_MESSAGE = 0;
+
+    private static final byte KIND_TIMER_START = 1;
+
+    private static final byte KIND_TIMER_END = 2;
+
     /**
      * The system time at creation of this instance or the last {@link #reset()}.
      */
@@ -119,14 +141,49 @@ public class RequestProgressTrackerImpl implements RequestProgressTracker {
     private long processingEnd;
 
     /**
-     * The list of tracking entries.
+     * Whether only the most recent entries are kept, which are formatted on demand.
+     */
+    private final boolean ring;
+
+    /*
+     * The tracking entries, stored in parallel arrays. For messages, the message
+     * is the complete message or, in ring mode, the format used with the arguments.
+     * For timer entries, the name id refers to the timer name and the message is
+     * the optional message format.
      */
-    private final List<TrackingEntry> entries = new ArrayList<TrackingEntry>();
+    private long[] timeStamps;
+
+    private byte[] kinds;
+
+    private int[] nameIds;
+
+    private long[] elapsed;
+
+    private String[] messages;
+
+    private Object[][] arguments;
+
+    /** The index of the oldest entry. */
+    private int first;
+
+    /** The number of entries. */
+    private int size;
+
+    /** The number of entries overwritten in ring mode. */
+    private long dropped;
+
     /**
-     * Map of named timers indexed by timer name storing the system time of
-     * start of the respective timer.
+     * The ids of the timer names.
      */
-    private final Map<String, Long> namedTimerEntries = new HashMap<String, Long>();
+    private final Map<String, Integer> nameIdMap = new HashMap<String, Integer>();
+
+    /** The timer names by id. */
+    private String[] names = new String[4];
+
+    /** The start times of the timers by name id, if started. */
+    private long[] timerStarts = new long[4];
+
+    private boolean[] timerStarted = new boolean[4];
 
     private final FastMessageFormat messageFormat = new FastMessageFormat();
 
@@ -134,27 +191,123 @@ public class RequestProgressTrackerImpl implements RequestProgressTracker {
      * Creates a new request progress tracker.
      */
     public RequestProgressTrackerImpl() {
+        this(INITIAL_CAPACITY, false);
+    }
+
+    /**
+     * Creates a new request progress tracker in ring mode, keeping the given
+     * number of most recent entries.
+     *
+     * @param capacity The maximum number of entries
+     * @throws IllegalArgumentException If the capacity is less than 1
+     */
+    public RequestProgressTrackerImpl(final int capacity) {
+        this(capacity, true);
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+    }
+
+    private RequestProgressTrackerImpl(final int capacity, final boolean ring) {
+        this.ring = ring;
+        this.allocate(Math.max(1, capacity));
         // enter initial messages
         this.processingStart = startTimerInternal(REQUEST_PROCESSING_TIMER);
         this.processingEnd = -1;
 
-        this.entries.add(new TrackingEntry(COMMENT_PREFIX + "timer_end format is " + TIMER_END_FORMAT));
+        this.add(KIND_MESSAGE, -1, 0, COMMENT_PREFIX + "timer_end format is " + TIMER_END_FORMAT, null);
+    }
+
+    private void allocate(final int capacity) {
+        this.timeStamps = new long[capacity];
+        this.kinds = new byte[capacity];
+        this.nameIds = new int[capacity];
+        this.elapsed = new long[capacity];
+        this.messages = new String[capacity];
+        this.arguments = new Object[capacity][];
+    }
+
+    /**
+     * Adds an entry with the current time stamp and returns the time stamp.
+     */
+    private long add(
+            final byte kind, final int nameId, final long elapsedTime, final String message, final Object[] args) {
+        return this.add(System.nanoTime(), kind, nameId, elapsedTime, message, args);
+    }
+
+    private long add(
+            final long timeStamp,
+            final byte kind,
+            final int nameId,
+            final long elapsedTime,
+            final String message,
+            final Object[] args) {
+        final int capacity = this.timeStamps.length;
+        if (this.size == capacity) {
+            if (this.ring) {
+                // overwrite the oldest entry
+                this.first = (this.first + 1) % capacity;
+                this.size--;
+                this.dropped++;
+            } else {
+                this.timeStamps = Arrays.copyOf(this.timeStamps, capacity * 2);
+                this.kinds = Arrays.copyOf(this.kinds, capacity * 2);
+                this.nameIds = Arrays.copyOf(this.nameIds, capacity * 2);
+                this.elapsed = Arrays.copyOf(this.elapsed, capacity * 2);
+                this.messages = Arrays.copyOf(this.messages, capacity * 2);
+                this.arguments = Arrays.copyOf(this.arguments, capacity * 2);
+            }
+        }
+        final int index = (this.first + this.size) % this.timeStamps.length;
+        this.timeStamps[index] = timeStamp;
+        this.kinds[index] = kind;
+        this.nameIds[index] = nameId;
+        this.elapsed[index] = elapsedTime;
+        this.messages[index] = message;
+        this.arguments[index] = args;
+        this.size++;
+        return timeStamp;
+    }
+
+    private int nameId(final String name) {
+        final Integer id = this.nameIdMap.get(name);
+        if (id != null) {
+            return id;
+        }
+        final int newId = this.nameIdMap.size();
+        if (newId == this.names.length) {
+            this.names = Arrays.copyOf(this.names, newId * 2);
+            this.timerStarts = Arrays.copyOf(this.timerStarts, newId * 2);
+            this.timerStarted = Arrays.copyOf(this.timerStarted, newId * 2);
+        }
+        this.names[newId] = name;
+        this.nameIdMap.put(name, newId);
+        return newId;
     }
 
     @Override
     public Iterator<String> getMessages() {
         return new Iterator<String>() {
-            private final Iterator<TrackingEntry> entryIter = entries.iterator();
+            private final boolean droppedComment = dropped > 0;
+
+            private int position = droppedComment ? -1 : 0;
 
             public boolean hasNext() {
-                return entryIter.hasNext();
+                return position < size;
             }
 
             public String next() {
-                // throws NoSuchElementException if no entries any more
-                final TrackingEntry entry = entryIter.next();
-                final long offset = entry.getTimeStamp() - getTimeStamp();
-                return formatMessage(offset, entry.getMessage());
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (position == -1) {
+                    position++;
+                    final long offset = timeStamps[first] - getTimeStamp();
+                    return formatMessage(offset, COMMENT_PREFIX + dropped + " older entries dropped");
+                }
+                final int index = (first + position++) % timeStamps.length;
+                final long offset = timeStamps[index] - getTimeStamp();
+                return formatMessage(offset, getMessage(index));
             }
 
             public void remove() {
@@ -163,6 +316,38 @@ public class RequestProgressTrackerImpl implements RequestProgressTracker {
         };
     }
 
+    /**
+     * Creates the message of an entry.
+     */
+    private String getMessage(final int index) {
+        switch (this.kinds[index]) {
+            case KIND_TIMER_START:
+                return "TIMER_START{" + this.names[this.nameIds[index]] + "}";
+            case KIND_TIMER_END:
+                final StringBuilder sb = new StringBuilder();
+                sb.append("TIMER_END{");
+                sb.append(this.elapsed[index] / 1000);
+                sb.append(',');
+                sb.append(this.names[this.nameIds[index]]);
+                sb.append('}');
+                final String msg = this.getFormatted(index);
+                if (msg != null) {
+                    sb.append(' ');
+                    sb.append(msg);
+                }
+                return sb.toString();
+            default:
+                final String message = this.getFormatted(index);
+                return this.arguments[index] != null ? LOG_PREFIX + message : message;
+        }
+    }
+
+    private String getFormatted(final int index) {
+        final String message = this.messages[index];
+        final Object[] args = this.arguments[index];
+        return message != null && args != null ? this.messageFormat.format(message, args) : message;
+    }
+
     private String formatMessage(final long offset, final String message) {
         // Set exact length to avoid array copies within StringBuilder
         final StringBuilder sb = new StringBuilder(PADDING_WIDTH + 1 + message.length() + 1);
@@ -189,13 +374,18 @@ public class RequestProgressTrackerImpl implements RequestProgressTracker {
 
     @Override
     public void log(final String message) {
-        entries.add(new TrackingEntry(LOG_PREFIX + message));
+        add(KIND_MESSAGE, -1, 0, LOG_PREFIX + message, null);
     }
 
     @Override
     public void log(final String format, final Object... args) {
-        String message = messageFormat.format(format, args);
-        entries.add(new TrackingEntry(LOG_PREFIX + message));
+        if (this.ring) {
+            // the LOG prefix is added when formatting the entry
+            add(KIND_MESSAGE, -1, 0, format, args != null ? args : new Object[0]);
+        } else {
+            String message = messageFormat.format(format, args);
+            add(KIND_MESSAGE, -1, 0, LOG_PREFIX + message, null);
+        }
     }
 
     @Override
@@ -204,48 +394,61 @@ public class RequestProgressTrackerImpl implements RequestProgressTracker {
     }
 
     /**
-     * Start the named timer and returns the start time in milliseconds.
+     * Start the named timer and returns the start time in nanoseconds.
      * Logs a message with format
      * <pre>
      * TIMER_START{<name>} <optional message>
      * </pre>
      */
     private long startTimerInternal(final String name) {
-        long timer = System.nanoTime();
-        namedTimerEntries.put(name, timer);
-        entries.add(new TrackingEntry(timer, "TIMER_START{" + name + "}"));
+        final int id = nameId(name);
+        final long timer = add(KIND_TIMER_START, id, 0, null, null);
+        timerStarts[id] = timer;
+        timerStarted[id] = true;
         return timer;
     }
 
     @Override
     public void logTimer(final String name) {
-        if (namedTimerEntries.containsKey(name)) {
-            logTimerInternal(name, null, namedTimerEntries.get(name));
+        final Integer id = nameIdMap.get(name);
+        if (id != null && timerStarted[id]) {
+            logTimerInternal(id, null, null);
         }
     }
 
     @Override
     public void logTimer(final String name, final String format, final Object... args) {
-        if (namedTimerEntries.containsKey(name)) {
-            logTimerInternal(name, messageFormat.format(format, args), namedTimerEntries.get(name));
+        final Integer id = nameIdMap.get(name);
+        if (id != null && timerStarted[id]) {
+            if (this.ring) {
+                logTimerInternal(id, format, args != null ? args : new Object[0]);
+            } else {
+                logTimerInternal(id, messageFormat.format(format, args), null);
+            }
         }
     }
 
     /**
      * Log a timer entry, including start, end and elapsed time using TIMER_END_FORMAT
      */
-    private void logTimerInternal(final String name, final String msg, final long startTime) {
-        final StringBuilder sb = new StringBuilder();
-        sb.append("TIMER_END{");
-        sb.append((System.nanoTime() - startTime) / 1000);
-        sb.append(',');
-        sb.append(name);
-        sb.append('}');
-        if (msg != null) {
-            sb.append(' ');
-            sb.append(msg);
+    private void logTimerInternal(final int id, final String msg, final Object[] args) {
+        final long now = System.nanoTime();
+        add(now, KIND_TIMER_END, id, now - timerStarts[id], msg, args);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * In ring mode, only the timers of the retained entries are passed.
+     */
+    @Override
+    public void forEachTimer(final @NotNull ObjLongConsumer<String> consumer) {
+        for (int i = 0; i < size; i++) {
+            final int index = (first + i) % timeStamps.length;
+            if (kinds[index] == KIND_TIMER_END) {
+                consumer.accept(names[nameIds[index]], elapsed[index]);
+            }
         }
-        entries.add(new TrackingEntry(sb.toString()));
     }
 
     @Override
@@ -266,31 +469,4 @@ public class RequestProgressTrackerImpl implements RequestProgressTracker {
         }
         return System.nanoTime() - processingStart;
     }
-
-    /** Process tracker entry keeping timestamp, tag and message */
-    private static class TrackingEntry {
-
-        // creation time stamp
-        private final long timeStamp;
-
-        // tracking message
-        private final String message;
-
-        TrackingEntry(final String message) {
-            this(System.nanoTime(), message);
-        }
-
-        TrackingEntry(final long timeStamp, final String message) {
-            this.timeStamp = timeStamp;
-            this.message = message;
-        }
-
-        long getTimeStamp() {
-            return timeStamp;
-        }
-
-        String getMessage() {
-            return message;
-        }
-    }
 }
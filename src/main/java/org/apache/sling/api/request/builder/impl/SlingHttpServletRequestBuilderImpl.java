@@ -21,8 +21,10 @@ package org.apache.sling.api.request.builder.impl;
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.ListResourceBundle;
 import java.util.Locale;
 import java.util.Map;
@@ -38,6 +40,7 @@ import org.apache.felix.http.jakartawrappers.RequestDispatcherWrapper;
 import org.apache.felix.http.jakartawrappers.ServletContextWrapper;
 import org.apache.sling.api.SlingJakartaHttpServletRequest;
 import org.apache.sling.api.request.RequestDispatcherOptions;
+import org.apache.sling.api.request.RequestParameter;
 import org.apache.sling.api.request.RequestParameterMap;
 import org.apache.sling.api.request.RequestPathInfo;
 import org.apache.sling.api.request.RequestProgressTracker;
@@ -100,6 +103,9 @@ public class SlingHttpServletRequestBuilderImpl implements SlingHttpServletReque
     /** Parameters map */
     final Map<String, String[]> parameters = new LinkedHashMap<>();
 
+    /** Additional request parameters */
+    final Map<String, List<RequestParameter>> requestParameters = new LinkedHashMap<>();
+
     /** Request path info */
     RequestPathInfo requestPathInfo;
 
@@ -118,6 +124,9 @@ public class SlingHttpServletRequestBuilderImpl implements SlingHttpServletReque
     /** On demand request parameter map */
     RequestParameterMap requestParameterMap;
 
+    /** Whether the request parameter map is parsed lazily */
+    boolean lazyRequestParameterMap;
+
     /** Headers */
     final HeaderSupport headerSupport = new HeaderSupport();
 
@@ -252,6 +261,34 @@ public class SlingHttpServletRequestBuilderImpl implements SlingHttpServletReque
         return this;
     }
 
+    @Override
+    public @NotNull SlingHttpServletRequestBuilder withLazyRequestParameterMap(final boolean lazy) {
+        this.checkLocked();
+        this.lazyRequestParameterMap = lazy;
+        return this;
+    }
+
+    /**
+     * Create the request parameter map of the built request.
+     */
+    RequestParameterMap createRequestParameterMap() {
+        if (this.lazyRequestParameterMap) {
+            // the builder is locked, so its decoded parameters can be used without copying
+            return new LazyRequestParameterMapImpl(this.parameters, this.requestParameters);
+        }
+        return new RequestParameterMapImpl(this.parameters, this.requestParameters);
+    }
+
+    @Override
+    public @NotNull SlingHttpServletRequestBuilder withRequestParameter(final @NotNull RequestParameter parameter) {
+        this.checkLocked();
+        this.checkNotNull("parameter", parameter);
+        this.requestParameters
+                .computeIfAbsent(parameter.getName(), key -> new ArrayList<>())
+                .add(parameter);
+        return this;
+    }
+
     @Override
     public @NotNull SlingHttpServletRequestBuilder useAttributesFrom(
             @NotNull javax.servlet.http.HttpServletRequest request) {
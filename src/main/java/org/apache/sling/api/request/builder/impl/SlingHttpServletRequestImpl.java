@@ -179,7 +179,7 @@ public class SlingHttpServletRequestImpl extends SlingAdaptable implements Sling
     @Override
     public RequestParameterMap getRequestParameterMap() {
         if (this.builder.requestParameterMap == null) {
-            this.builder.requestParameterMap = new RequestParameterMapImpl(this.builder.parameters);
+            this.builder.requestParameterMap = this.builder.createRequestParameterMap();
         }
         return this.builder.requestParameterMap;
     }
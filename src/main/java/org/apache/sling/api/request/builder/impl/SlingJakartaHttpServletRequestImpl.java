@@ -170,7 +170,7 @@ public class SlingJakartaHttpServletRequestImpl extends SlingAdaptable implement
     @Override
     public RequestParameterMap getRequestParameterMap() {
         if (this.builder.requestParameterMap == null) {
-            this.builder.requestParameterMap = new RequestParameterMapImpl(this.builder.parameters);
+            this.builder.requestParameterMap = this.builder.createRequestParameterMap();
         }
         return this.builder.requestParameterMap;
     }
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.request.builder.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.sling.api.request.RequestParameter;
+import org.apache.sling.api.request.builder.CloseableRequestParameter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Implementation of {@link RequestParameter} for uploaded files, which keeps
+ * the contents in memory up to a threshold and in a temporary file beyond.
+ * Closing the parameter deletes the temporary file.
+ */
+public class SpillingRequestParameterImpl implements CloseableRequestParameter {
+
+    /** The default threshold, 256 KB. */
+    public static final int DEFAULT_THRESHOLD = 256 * 1024;
+
+    private static final String TEMP_FILE_PREFIX = "sling-request-parameter-";
+
+    private final @NotNull String name;
+    private final String fileName;
+    private final String contentType;
+    private final byte[] memory;
+    private final Path file;
+    private final long size;
+
+    public SpillingRequestParameterImpl(
+            @NotNull final String name,
+            @NotNull final InputStream content,
+            final String fileName,
+            final String contentType,
+            final int threshold)
+            throws IOException {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold must be non-negative");
+        }
+        this.name = name;
+        this.fileName = fileName;
+        this.contentType = contentType;
+        // read one more byte than the threshold to find out whether the contents fit,
+        // an array cannot hold more than Integer.MAX_VALUE bytes anyway
+        final byte[] buffer = content.readNBytes(threshold == Integer.MAX_VALUE ? threshold : threshold + 1);
+        if (buffer.length <= threshold) {
+            this.memory = buffer;
+            this.file = null;
+            this.size = buffer.length;
+        } else {
+            this.memory = null;
+            this.file = Files.createTempFile(TEMP_FILE_PREFIX, null);
+            try (final OutputStream out = Files.newOutputStream(this.file)) {
+                out.write(buffer);
+                this.size = buffer.length + content.transferTo(out);
+            } catch (final IOException | RuntimeException e) {
+                Files.deleteIfExists(this.file);
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public @NotNull String getName() {
+        return this.name;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If the contents are stored in a temporary file, they are read into a
+     * new array on each call, prefer {@link #getInputStream()} or {@link #getPath()}.
+     *
+     * @throws UncheckedIOException If the temporary file cannot be read
+     */
+    @Override
+    public byte[] get() {
+        if (this.memory != null) {
+            return this.memory;
+        }
+        try {
+            return Files.readAllBytes(this.file);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String getContentType() {
+        return this.contentType;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return this.memory != null ? new ByteArrayInputStream(this.memory) : Files.newInputStream(this.file);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return The temporary file, or <code>null</code> if the contents are held in memory
+     */
+    @Override
+    public @Nullable Path getPath() {
+        return this.file;
+    }
+
+    @Override
+    public String getFileName() {
+        return this.fileName;
+    }
+
+    @Override
+    public long getSize() {
+        return this.size;
+    }
+
+    @Override
+    public @NotNull String getString() {
+        return new String(this.get(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public @NotNull String getString(final @NotNull String encoding) throws UnsupportedEncodingException {
+        return new String(this.get(), encoding);
+    }
+
+    @Override
+    public boolean isFormField() {
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.file != null) {
+            Files.deleteIfExists(this.file);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SpillingRequestParameterImpl [name=" + this.name + ", fileName=" + this.fileName + ", size=" + this.size
+                + ", file=" + this.file + "]";
+    }
+}
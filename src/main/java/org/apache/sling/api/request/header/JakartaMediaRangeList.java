@@ -18,13 +18,20 @@
  */
 package org.apache.sling.api.request.header;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Set;
+import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.function.Predicate;
 
 import jakarta.servlet.http.HttpServletRequest;
+import org.apache.sling.api.request.impl.BoundedCache;
 import org.osgi.annotation.versioning.ConsumerType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -84,6 +91,47 @@ public class JakartaMediaRangeList extends TreeSet<JakartaMediaRangeList.MediaRa
         }
     }
 
+    /**
+     * The maximum number of cached instances returned by {@link #of(String)}.
+     */
+    static final int MAX_CACHED_LISTS = 256;
+
+    private static final BoundedCache<String, JakartaMediaRangeList> CACHE = new BoundedCache<>(MAX_CACHED_LISTS);
+
+    /**
+     * Returns an immutable <code>JakartaMediaRangeList</code> for the given list of media ranges,
+     * parsed as by {@link #JakartaMediaRangeList(String)}.
+     * <p>
+     * As clients send only a few distinct values, the instances are cached by
+     * value and shared. Therefore all methods modifying the returned list or its
+     * media ranges throw an <code>UnsupportedOperationException</code>.
+     *
+     * @param listStr The list of media range specifications, may be <code>null</code>
+     * @return The immutable, possibly shared list
+     * @since 1.2.0 (Sling API Bundle 3.0.3)
+     */
+    public static JakartaMediaRangeList of(String listStr) {
+        final String key = listStr == null ? "" : listStr;
+        return CACHE.get(key, Immutable::new);
+    }
+
+    /**
+     * Returns an immutable <code>JakartaMediaRangeList</code> using information from the supplied
+     * <code>HttpServletRequest</code>, like {@link #JakartaMediaRangeList(HttpServletRequest)} does.
+     *
+     * @param request The <code>HttpServletRequest</code> to extract a <code>JakartaMediaRangeList</code> from
+     * @return The immutable, possibly shared list
+     * @see #of(String)
+     * @since 1.2.0 (Sling API Bundle 3.0.3)
+     */
+    public static JakartaMediaRangeList of(HttpServletRequest request) {
+        String queryParam = request.getParameter(PARAM_ACCEPT);
+        if (queryParam != null && queryParam.trim().length() != 0) {
+            return of(queryParam);
+        }
+        return of(request.getHeader(HEADER_ACCEPT));
+    }
+
     private void init(String headerValue) {
         if (headerValue == null || headerValue.trim().length() == 0) {
             // RFC 2616: "If no Accept header field is present,
@@ -91,17 +139,27 @@ public class JakartaMediaRangeList extends TreeSet<JakartaMediaRangeList.MediaRa
             this.matchesAll = true;
             this.add(new MediaRange(WILDCARD + "/" + WILDCARD));
         } else {
-            String[] mediaTypes = headerValue.split(",");
-            for (String type : mediaTypes) {
+            // like String.split(","), ignore trailing empty media ranges
+            int length = headerValue.length();
+            while (length > 0 && headerValue.charAt(length - 1) == ',') {
+                length--;
+            }
+            int start = 0;
+            while (start < length) {
+                int end = headerValue.indexOf(',', start);
+                if (end == -1 || end > length) {
+                    end = length;
+                }
                 try {
-                    MediaRange range = new MediaRange(type);
+                    MediaRange range = new MediaRange(headerValue, start, end);
                     this.add(range);
                     if (range.matchesAll()) {
                         this.matchesAll = true;
                     }
                 } catch (Throwable throwable) {
-                    log.warn("Error registering media type " + type, throwable);
+                    log.warn("Error registering media type " + headerValue.substring(start, end), throwable);
                 }
+                start = end + 1;
             }
         }
     }
@@ -116,11 +174,46 @@ public class JakartaMediaRangeList extends TreeSet<JakartaMediaRangeList.MediaRa
      * @throws NullPointerException if <code>mediaType</code> is <code>null</code>
      */
     public boolean contains(String mediaType) {
+        if (isSimpleType(mediaType)) {
+            if (this.matchesAll) {
+                return true;
+            }
+            // same as the TreeSet lookup below, without creating a media range
+            for (MediaRange range : this) {
+                if (range.getQ() == 1 && range.parameters == null && range.hasType(mediaType)) {
+                    return true;
+                }
+            }
+            return false;
+        }
         //noinspection SuspiciousMethodCalls
         MediaRange comp = new MediaRange(mediaType);
         return this.matchesAll || this.contains(comp);
     }
 
+    /**
+     * Whether this list can not be modified, like the lists returned by {@link #of(String)}.
+     */
+    boolean isImmutable() {
+        return false;
+    }
+
+    /**
+     * Whether the string is a valid <code>type/subtype</code> without parameters,
+     * whitespace or a wildcard supertype, which can be compared without parsing it.
+     */
+    static boolean isSimpleType(String mediaType) {
+        final int length = mediaType.length();
+        final int slash = mediaType.indexOf('/');
+        return slash > 0
+                && slash < length - 1
+                && mediaType.indexOf('/', slash + 1) == -1
+                && mediaType.indexOf(';') == -1
+                && mediaType.charAt(0) > ' '
+                && mediaType.charAt(length - 1) > ' '
+                && mediaType.charAt(0) != '*';
+    }
+
     /**
      * Given a list of media types, returns the one is preferred by this <code>MediaRangeList</code>.
      * @param mediaRanges An array of possible {@link JakartaMediaRangeList.MediaRange}s
@@ -148,6 +241,24 @@ public class JakartaMediaRangeList extends TreeSet<JakartaMediaRangeList.MediaRa
      * if this <code>MediaRangeList</code> does not contain any of the <code>mediaRanges</code>
      */
     public String prefer(String... mediaRanges) {
+        boolean simple = true;
+        for (String mediaRange : mediaRanges) {
+            if (!isSimpleType(mediaRange)) {
+                simple = false;
+                break;
+            }
+        }
+        if (simple) {
+            // a simple type is its own string representation, no need to create media ranges
+            for (MediaRange range : this) {
+                for (String mediaRange : mediaRanges) {
+                    if (range.hasType(mediaRange)) {
+                        return mediaRange;
+                    }
+                }
+            }
+            return null;
+        }
         Set<MediaRange> ranges = new HashSet<MediaRange>();
         for (String mediaRange : mediaRanges) {
             ranges.add(new MediaRange(mediaRange));
@@ -194,21 +305,47 @@ public class JakartaMediaRangeList extends TreeSet<JakartaMediaRangeList.MediaRa
          * @throws NullPointerException if <code>exp</code> is <code>null</code>
          */
         public MediaRange(String exp) {
-            String[] parts = exp.split(";");
-            this.setType(parts[0].trim());
-            if (parts.length > 1) {
-                this.parameters = new HashMap<String, String>(parts.length - 1);
+            this(exp, 0, exp.length());
+        }
+
+        /**
+         * Constructs a <code>MediaRange</code> from a part of a <code>String</code>,
+         * parsed in the same way as by {@link #MediaRange(String)}.
+         */
+        MediaRange(String exp, int start, int end) {
+            // like String.split(";"), ignore trailing empty parameters
+            while (end > start && exp.charAt(end - 1) == ';') {
+                end--;
+            }
+            int typeEnd = indexOf(exp, ';', start, end);
+            this.setType(exp, start, typeEnd);
+            if (typeEnd < end) {
+                int count = 0;
+                for (int i = typeEnd; i < end; i = indexOf(exp, ';', i + 1, end)) {
+                    count++;
+                }
+                this.parameters = new HashMap<String, String>(count);
             }
-            for (int i = 1, partsLength = parts.length; i < partsLength; i++) {
-                String parameter = parts[i];
-                String[] keyValue = parameter.split("=");
-                if (keyValue[0].equals("q")) {
-                    this.q = Double.parseDouble(keyValue[1]);
+            for (int pos = typeEnd; pos < end; ) {
+                final int paramStart = pos + 1;
+                final int paramEnd = indexOf(exp, ';', paramStart, end);
+                pos = paramEnd;
+                final int eq = indexOf(exp, '=', paramStart, paramEnd);
+                final int valueEnd = indexOf(exp, '=', eq + 1, paramEnd);
+                if (eq + 1 >= valueEnd && !hasContent(exp, valueEnd, paramEnd, '=')) {
+                    throw new IllegalArgumentException(
+                            "Invalid parameter in media range: " + exp.substring(start, end));
+                }
+                final String key = exp.substring(paramStart, eq);
+                final String value = exp.substring(eq + 1, valueEnd);
+                if (key.equals("q")) {
+                    this.q = Double.parseDouble(value);
                     if (this.q < 0 || this.q > 1) {
-                        throw new IllegalArgumentException("Quality factor out of bounds: " + exp);
+                        throw new IllegalArgumentException(
+                                "Quality factor out of bounds: " + exp.substring(start, end));
                     }
                 }
-                this.parameters.put(keyValue[0], keyValue[1]);
+                this.parameters.put(key, value);
             }
         }
 
@@ -238,16 +375,48 @@ public class JakartaMediaRangeList extends TreeSet<JakartaMediaRangeList.MediaRa
             }
         }
 
-        private void setType(String typeDef) {
-            String[] parts = typeDef.split("/");
-            String superType = parts[0];
+        private void setType(String exp, int start, int end) {
+            // like String.trim()
+            while (start < end && exp.charAt(start) <= ' ') {
+                start++;
+            }
+            while (end > start && exp.charAt(end - 1) <= ' ') {
+                end--;
+            }
+            final int slash = indexOf(exp, '/', start, end);
+            String superType = exp.substring(start, slash);
             String subType = WILDCARD;
-            if (parts.length > 1) {
-                subType = parts[1];
+            if (slash < end) {
+                // like String.split("/"), an empty subtype is only used if something follows
+                final int subEnd = indexOf(exp, '/', slash + 1, end);
+                if (subEnd > slash + 1 || hasContent(exp, subEnd, end, '/')) {
+                    subType = exp.substring(slash + 1, subEnd);
+                }
             }
             this.setType(superType, subType);
         }
 
+        /**
+         * Whether this media range has the given simple type.
+         * @see JakartaMediaRangeList#isSimpleType(String)
+         */
+        boolean hasType(String mediaType) {
+            final int superLength = this.supertype.length();
+            return mediaType.length() == superLength + 1 + this.subtype.length()
+                    && mediaType.charAt(superLength) == '/'
+                    && mediaType.startsWith(this.supertype)
+                    && mediaType.endsWith(this.subtype);
+        }
+
+        /**
+         * Make the parameters of a shared media range immutable.
+         */
+        private void freeze() {
+            if (this.parameters != null) {
+                this.parameters = Collections.unmodifiableMap(this.parameters);
+            }
+        }
+
         MediaRange(String supertype, String subtype, double q) {
             this(supertype, subtype);
             this.q = q;
@@ -337,4 +506,163 @@ public class JakartaMediaRangeList extends TreeSet<JakartaMediaRangeList.MediaRa
             return buf.toString();
         }
     }
+
+    private static int indexOf(String str, char c, int start, int end) {
+        final int index = start >= end ? -1 : str.indexOf(c, start);
+        return index == -1 || index > end ? end : index;
+    }
+
+    /**
+     * Whether the region contains a character other than the given separator.
+     */
+    private static boolean hasContent(String str, int start, int end, char separator) {
+        for (int i = start; i < end; i++) {
+            if (str.charAt(i) != separator) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The immutable, shared lists returned by {@link JakartaMediaRangeList#of(String)}.
+     */
+    private static final class Immutable extends JakartaMediaRangeList {
+
+        private final boolean frozen;
+
+        Immutable(String listStr) {
+            super(listStr);
+            for (MediaRange range : this) {
+                range.freeze();
+            }
+            this.frozen = true;
+        }
+
+        @Override
+        boolean isImmutable() {
+            return this.frozen;
+        }
+
+        private void checkModifiable() {
+            if (this.frozen) {
+                throw new UnsupportedOperationException("Shared media range lists must not be modified");
+            }
+        }
+
+        @Override
+        public boolean add(MediaRange range) {
+            checkModifiable();
+            return super.add(range);
+        }
+
+        @Override
+        public boolean addAll(Collection<? extends MediaRange> c) {
+            checkModifiable();
+            return super.addAll(c);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            checkModifiable();
+            return super.remove(o);
+        }
+
+        @Override
+        public boolean removeAll(Collection<?> c) {
+            checkModifiable();
+            return super.removeAll(c);
+        }
+
+        @Override
+        public boolean retainAll(Collection<?> c) {
+            checkModifiable();
+            return super.retainAll(c);
+        }
+
+        @Override
+        public boolean removeIf(Predicate<? super MediaRange> filter) {
+            checkModifiable();
+            return super.removeIf(filter);
+        }
+
+        @Override
+        public void clear() {
+            checkModifiable();
+            super.clear();
+        }
+
+        @Override
+        public MediaRange pollFirst() {
+            checkModifiable();
+            return super.pollFirst();
+        }
+
+        @Override
+        public MediaRange pollLast() {
+            checkModifiable();
+            return super.pollLast();
+        }
+
+        @Override
+        public Iterator<MediaRange> iterator() {
+            return this.frozen ? unmodifiable(super.iterator()) : super.iterator();
+        }
+
+        @Override
+        public Iterator<MediaRange> descendingIterator() {
+            return unmodifiable(super.descendingIterator());
+        }
+
+        private static Iterator<MediaRange> unmodifiable(final Iterator<MediaRange> iterator) {
+            return new Iterator<MediaRange>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public MediaRange next() {
+                    return iterator.next();
+                }
+            };
+        }
+
+        @Override
+        public NavigableSet<MediaRange> descendingSet() {
+            return Collections.unmodifiableNavigableSet(super.descendingSet());
+        }
+
+        @Override
+        public NavigableSet<MediaRange> subSet(
+                MediaRange fromElement, boolean fromInclusive, MediaRange toElement, boolean toInclusive) {
+            return Collections.unmodifiableNavigableSet(
+                    super.subSet(fromElement, fromInclusive, toElement, toInclusive));
+        }
+
+        @Override
+        public SortedSet<MediaRange> subSet(MediaRange fromElement, MediaRange toElement) {
+            return Collections.unmodifiableSortedSet(super.subSet(fromElement, toElement));
+        }
+
+        @Override
+        public NavigableSet<MediaRange> headSet(MediaRange toElement, boolean inclusive) {
+            return Collections.unmodifiableNavigableSet(super.headSet(toElement, inclusive));
+        }
+
+        @Override
+        public SortedSet<MediaRange> headSet(MediaRange toElement) {
+            return Collections.unmodifiableSortedSet(super.headSet(toElement));
+        }
+
+        @Override
+        public NavigableSet<MediaRange> tailSet(MediaRange fromElement, boolean inclusive) {
+            return Collections.unmodifiableNavigableSet(super.tailSet(fromElement, inclusive));
+        }
+
+        @Override
+        public SortedSet<MediaRange> tailSet(MediaRange fromElement) {
+            return Collections.unmodifiableSortedSet(super.tailSet(fromElement));
+        }
+    }
 }
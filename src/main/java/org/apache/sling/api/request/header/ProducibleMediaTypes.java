@@ -0,0 +1,279 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.request.header;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The media types a servlet can produce, to select the one preferred by the
+ * Accept header of a request.
+ * <p>
+ * In contrast to {@link JakartaMediaRangeList#prefer(String...)}, which only
+ * finds media types listed literally in the Accept header, the media ranges of
+ * the Accept header are matched as specified by
+ * <a href="https://www.rfc-editor.org/rfc/rfc9110#section-12.5.1">RFC 9110 section 12.5.1</a>:
+ * a produced type gets the quality factor of the most specific media range
+ * matching it, where <code>text/html</code> is more specific than
+ * <code>text/*</code>, which is more specific than <code>*&#47;*</code>, and
+ * media ranges with more parameters are more specific. The produced type with
+ * the highest quality factor is selected, for equal quality factors the one
+ * given first to the constructor.
+ * <p>
+ * Instances are immutable apart from an internal cache, thread-safe, and meant
+ * to be created once, for example per servlet. The result is cached for the
+ * shared lists returned by {@link JakartaMediaRangeList#of(String)}, so
+ * negotiating the same Accept header again costs a lookup only.
+ *
+ * @since 1.2.0 (Sling API Bundle 3.0.3)
+ */
+public final class ProducibleMediaTypes {
+
+    /**
+     * The number of cached results, a power of two.
+     */
+    private static final int CACHE_SIZE = 64;
+
+    /**
+     * A cached result.
+     */
+    private static final class Entry {
+
+        final Object acceptList;
+
+        final String result;
+
+        Entry(final Object acceptList, final String result) {
+            this.acceptList = acceptList;
+            this.result = result;
+        }
+    }
+
+    private final List<String> types;
+
+    private final String[] supertypes;
+
+    private final String[] subtypes;
+
+    private final Map<String, String>[] parameters;
+
+    /**
+     * The cached results, indexed by the identity hash code of the accept list.
+     * The entries are immutable, so concurrent updates only lose entries.
+     */
+    private final Entry[] cache = new Entry[CACHE_SIZE];
+
+    /**
+     * Create the producible media types.
+     *
+     * @param types The media types in the order of the preference of the servlet,
+     *            each on the form <code>type "/" subtype *( ";" parameter )</code>.
+     * @throws IllegalArgumentException If no type is given or a type is not a valid media type
+     */
+    @SuppressWarnings("unchecked")
+    public ProducibleMediaTypes(final @NotNull String... types) {
+        if (types.length == 0) {
+            throw new IllegalArgumentException("At least one media type is required");
+        }
+        this.types = Collections.unmodifiableList(Arrays.asList(types.clone()));
+        this.supertypes = new String[types.length];
+        this.subtypes = new String[types.length];
+        this.parameters = new Map[types.length];
+        for (int i = 0; i < types.length; i++) {
+            final String type = types[i];
+            final int paramStart = type.indexOf(';');
+            final String typeDef = (paramStart == -1 ? type : type.substring(0, paramStart)).trim();
+            final int slash = typeDef.indexOf('/');
+            if (slash <= 0 || slash == typeDef.length() - 1 || typeDef.contains(JakartaMediaRangeList.WILDCARD)) {
+                throw new IllegalArgumentException("Invalid media type: " + type);
+            }
+            this.supertypes[i] = typeDef.substring(0, slash);
+            this.subtypes[i] = typeDef.substring(slash + 1);
+            final Map<String, String> params = new HashMap<>();
+            if (paramStart != -1) {
+                for (final String param : type.substring(paramStart + 1).split(";")) {
+                    final int eq = param.indexOf('=');
+                    if (eq <= 0) {
+                        throw new IllegalArgumentException("Invalid media type: " + type);
+                    }
+                    params.put(
+                            param.substring(0, eq).trim().toLowerCase(Locale.ROOT),
+                            param.substring(eq + 1).trim());
+                }
+            }
+            this.parameters[i] = params;
+        }
+    }
+
+    /**
+     * Get the producible media types.
+     *
+     * @return The media types in the order given to the constructor
+     */
+    public @NotNull List<String> getTypes() {
+        return this.types;
+    }
+
+    /**
+     * Select the producible media type preferred by the given Accept header.
+     *
+     * @param acceptList The parsed Accept header
+     * @return The preferred media type, as given to the constructor, or <code>null</code>
+     *         if the Accept header does not accept any of the producible types
+     */
+    public @Nullable String prefer(final @NotNull JakartaMediaRangeList acceptList) {
+        return this.prefer(acceptList, acceptList.isImmutable(), this::select);
+    }
+
+    /**
+     * Select the producible media type preferred by the given Accept header.
+     *
+     * @param acceptList The parsed Accept header
+     * @return The preferred media type, as given to the constructor, or <code>null</code>
+     *         if the Accept header does not accept any of the producible types
+     * @deprecated Use {@link #prefer(JakartaMediaRangeList)} instead.
+     */
+    @Deprecated
+    public @Nullable String prefer(final @NotNull MediaRangeList acceptList) {
+        return this.prefer(acceptList, acceptList.isImmutable(), this::select);
+    }
+
+    /**
+     * Selects the preferred type, using the cache for immutable, shared accept lists.
+     */
+    private <T> String prefer(final T acceptList, final boolean immutable, final Function<T, String> select) {
+        if (!immutable) {
+            return select.apply(acceptList);
+        }
+        final int index = System.identityHashCode(acceptList) & (CACHE_SIZE - 1);
+        final Entry entry = this.cache[index];
+        if (entry != null && entry.acceptList == acceptList) {
+            return entry.result;
+        }
+        final String result = select.apply(acceptList);
+        this.cache[index] = new Entry(acceptList, result);
+        return result;
+    }
+
+    private String select(final JakartaMediaRangeList acceptList) {
+        final Match match = new Match();
+        for (final JakartaMediaRangeList.MediaRange range : acceptList) {
+            match.add(range.getSupertype(), range.getSubtype(), range.getQ(), range.getParameters());
+        }
+        return match.result();
+    }
+
+    @SuppressWarnings("deprecation")
+    private String select(final MediaRangeList acceptList) {
+        final Match match = new Match();
+        for (final MediaRangeList.MediaRange range : acceptList) {
+            match.add(range.getSupertype(), range.getSubtype(), range.getQ(), range.getParameters());
+        }
+        return match.result();
+    }
+
+    /**
+     * The most specific media range found so far for each producible type.
+     */
+    private final class Match {
+
+        private final int[] specificity = new int[types.size()];
+
+        private final double[] quality = new double[types.size()];
+
+        Match() {
+            Arrays.fill(this.specificity, -1);
+        }
+
+        void add(final String supertype, final String subtype, double q, final Map<String, String> params) {
+            final boolean anySupertype = JakartaMediaRangeList.WILDCARD.equals(supertype);
+            final boolean anySubtype = JakartaMediaRangeList.WILDCARD.equals(subtype);
+            // the media range keeps the parameters as given, like " q" after "; "
+            Map<String, String> rangeParams = Collections.emptyMap();
+            for (final Map.Entry<String, String> param : params.entrySet()) {
+                final String name = param.getKey().trim().toLowerCase(Locale.ROOT);
+                if ("q".equals(name)) {
+                    q = quality(param.getValue(), q);
+                } else {
+                    if (rangeParams.isEmpty()) {
+                        rangeParams = new HashMap<>();
+                    }
+                    rangeParams.put(name, param.getValue().trim());
+                }
+            }
+            // wildcards count most, parameters only among ranges of the same type
+            final int rangeSpecificity =
+                    (anySupertype ? 0 : anySubtype ? 1 : 2) * 1024 + Math.min(rangeParams.size(), 1023);
+            for (int i = 0; i < this.specificity.length; i++) {
+                if (rangeSpecificity > this.specificity[i]
+                        && (anySupertype || supertypes[i].equalsIgnoreCase(supertype))
+                        && (anySubtype || subtypes[i].equalsIgnoreCase(subtype))
+                        && matchesParameters(parameters[i], rangeParams)) {
+                    this.specificity[i] = rangeSpecificity;
+                    this.quality[i] = q;
+                }
+            }
+        }
+
+        String result() {
+            int best = -1;
+            for (int i = 0; i < this.specificity.length; i++) {
+                if (this.specificity[i] >= 0
+                        && this.quality[i] > 0
+                        && (best == -1 || this.quality[i] > this.quality[best])) {
+                    best = i;
+                }
+            }
+            return best == -1 ? null : types.get(best);
+        }
+    }
+
+    /**
+     * Parses the quality factor, keeping the given one if it is invalid.
+     */
+    private static double quality(final String value, final double defaultQuality) {
+        try {
+            final double q = Double.parseDouble(value.trim());
+            return q >= 0 && q <= 1 ? q : defaultQuality;
+        } catch (final NumberFormatException e) {
+            return defaultQuality;
+        }
+    }
+
+    /**
+     * Whether the produced type has all parameters of the range, whose names are
+     * trimmed, lower case and without the quality factor.
+     */
+    private static boolean matchesParameters(final Map<String, String> produced, final Map<String, String> range) {
+        for (final Map.Entry<String, String> param : range.entrySet()) {
+            if (!param.getValue().equals(produced.get(param.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
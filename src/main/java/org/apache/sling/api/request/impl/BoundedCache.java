@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.request.impl;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A thread-safe cache holding at most a given number of entries. When the
+ * cache is full, the oldest entries are evicted one by one, so the frequently
+ * used entries added earlier stay in the cache.
+ * <p>
+ * Reads do not lock. The values are computed outside of the map, so a value
+ * might be computed more than once concurrently, but only one of them is cached
+ * and returned to all callers.
+ *
+ * @param <K> The type of the keys
+ * @param <V> The type of the values
+ */
+public final class BoundedCache<K, V> {
+
+    private final int maxSize;
+
+    private final Map<K, V> entries = new ConcurrentHashMap<>();
+
+    /**
+     * The entries in the order they were added. An entry only evicts the value
+     * it was queued with, never a value added again for the same key later.
+     */
+    private final Queue<Map.Entry<K, V>> order = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxSize The maximum number of entries
+     * @throws IllegalArgumentException if {@code maxSize} is not positive
+     */
+    public BoundedCache(final int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the cached value for the key, computing and caching it if absent.
+     *
+     * @param key The key
+     * @param function The function computing the value, must not return {@code null}
+     * @return The cached value
+     */
+    public @NotNull V get(@NotNull final K key, @NotNull final Function<? super K, ? extends V> function) {
+        V value = this.entries.get(key);
+        if (value == null) {
+            value = function.apply(key);
+            final V existing = this.entries.putIfAbsent(key, value);
+            if (existing != null) {
+                return existing;
+            }
+            this.order.add(new AbstractMap.SimpleImmutableEntry<>(key, value));
+            while (this.entries.size() > this.maxSize) {
+                final Map.Entry<K, V> eldest = this.order.poll();
+                if (eldest == null) {
+                    break;
+                }
+                this.entries.remove(eldest.getKey(), eldest.getValue());
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Returns the number of cached entries.
+     *
+     * @return The number of entries
+     */
+    public int size() {
+        return this.entries.size();
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.resource;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * This visitor will traverse the given resource and all its descendants without
+ * recursion and call the {@link #visit(Resource)} method for each visited resource.
+ * In contrast to the {@link AbstractResourceVisitor}, the depth of the tree is
+ * not limited by the stack size.
+ * <p>
+ * The resources are traversed either depth-first, in the same order as the
+ * {@link AbstractResourceVisitor} does, or breadth-first. The traversal can be
+ * limited to a maximum depth and subtrees can be skipped by overriding
+ * {@link #traverse(Resource, int)}.
+ * <p>
+ * Concrete subclasses must implement the {@link #visit(Resource)} method.
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/Breadth-first_search">Breadth-First-Search</a>
+ * @since 2.15.0 (Sling API Bundle 3.0.3)
+ */
+public abstract class AbstractIterativeResourceVisitor extends AbstractResourceVisitor {
+
+    /**
+     * The order in which the resources are visited.
+     */
+    public enum Order {
+        /** A resource is visited before its children, and a subtree is completed before its next sibling. */
+        DEPTH_FIRST,
+        /** All resources of a depth are visited before the resources of the next depth. */
+        BREADTH_FIRST
+    }
+
+    private final Order order;
+
+    private final int maxDepth;
+
+    /**
+     * Create a depth-first visitor without depth limit.
+     */
+    protected AbstractIterativeResourceVisitor() {
+        this(Order.DEPTH_FIRST, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Create a visitor.
+     * @param order The traversal order
+     * @param maxDepth The maximum depth of the visited resources, relative to the
+     *            resource passed to {@link #accept(Resource)}, which has the depth 0.
+     * @throws IllegalArgumentException If {@code maxDepth} is negative
+     */
+    protected AbstractIterativeResourceVisitor(final @NotNull Order order, final int maxDepth) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("maxDepth must be non-negative");
+        }
+        this.order = order;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Get the traversal order.
+     * @return The order
+     */
+    public @NotNull Order getOrder() {
+        return this.order;
+    }
+
+    /**
+     * Get the maximum depth of the visited resources.
+     * @return The maximum depth, {@link Integer#MAX_VALUE} if there is no limit
+     */
+    public int getMaxDepth() {
+        return this.maxDepth;
+    }
+
+    /**
+     * Visit the given resource and all its descendants.
+     * @param res The resource
+     */
+    @Override
+    public void accept(final Resource res) {
+        if (res != null) {
+            this.accept(res, 0);
+        }
+    }
+
+    /**
+     * Visit the given resource, which has the given depth, and its descendants.
+     * @param res The resource
+     * @param depth The depth of the resource
+     */
+    void accept(final @NotNull Resource res, final int depth) {
+        if (this.order == Order.BREADTH_FIRST) {
+            this.acceptBreadthFirst(res, depth);
+        } else {
+            this.acceptDepthFirst(res, depth);
+        }
+    }
+
+    private void acceptDepthFirst(final Resource res, final int depth) {
+        this.visit(res);
+        if (!this.descend(res, depth)) {
+            return;
+        }
+        // the depth of the children of the topmost iterator is the size of the stack plus the depth of res
+        final Deque<Iterator<Resource>> stack = new ArrayDeque<>();
+        stack.push(res.listChildren());
+        while (!stack.isEmpty()) {
+            final Iterator<Resource> children = stack.peek();
+            if (children.hasNext()) {
+                final Resource child = children.next();
+                final int childDepth = depth + stack.size();
+                this.visit(child);
+                if (this.descend(child, childDepth)) {
+                    stack.push(child.listChildren());
+                }
+            } else {
+                stack.pop();
+            }
+        }
+    }
+
+    private void acceptBreadthFirst(final Resource res, final int depth) {
+        final Deque<Resource> queue = new ArrayDeque<>();
+        final Deque<Integer> depths = new ArrayDeque<>();
+        queue.add(res);
+        depths.add(depth);
+        while (!queue.isEmpty()) {
+            final Resource current = queue.poll();
+            final int currentDepth = depths.poll();
+            this.visit(current);
+            if (this.descend(current, currentDepth)) {
+                final Iterator<Resource> children = current.listChildren();
+                while (children.hasNext()) {
+                    queue.add(children.next());
+                    depths.add(currentDepth + 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether the children of the resource are visited.
+     */
+    boolean descend(final @NotNull Resource res, final int depth) {
+        return depth < this.maxDepth && this.traverse(res, depth);
+    }
+
+    /**
+     * Decide whether the descendants of a visited resource are traversed.
+     * This method is called after {@link #visit(Resource)} has been called for
+     * the resource, unless the resource is at the maximum depth.
+     * The default implementation returns {@code true}.
+     *
+     * @param res The resource
+     * @param depth The depth of the resource
+     * @return {@code true} to traverse the descendants, {@code false} to skip them
+     */
+    protected boolean traverse(final @NotNull Resource res, final int depth) {
+        return true;
+    }
+}
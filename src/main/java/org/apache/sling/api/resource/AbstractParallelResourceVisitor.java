@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.resource;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.apache.sling.api.SlingException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * This visitor traverses the given resource and all its descendants in parallel,
+ * using a {@link ForkJoinPool}, and calls the {@link #visit(Resource)} method for
+ * each visited resource.
+ * <p>
+ * The resources down to the fork depth are visited in separate tasks, the
+ * subtrees below them are traversed depth-first within the task of their
+ * ancestor. As a resource resolver must not be used concurrently, each worker
+ * thread uses its own {@link ResourceResolver#clone(Map) clone} of the resource
+ * resolver of the given resource and looks up the resources by their path.
+ * The clones are closed once the traversal is finished, therefore the visited
+ * resources must not be used after {@link #visit(Resource)} returns.
+ * <p>
+ * The {@link #visit(Resource)} and {@link #traverse(Resource, int)} methods of
+ * concrete subclasses must be thread-safe. The order in which the resources are
+ * visited is undefined, apart from a resource being visited before its descendants.
+ * {@link #accept(Resource)} still traverses the resources sequentially.
+ *
+ * @since 2.15.0 (Sling API Bundle 3.0.3)
+ */
+public abstract class AbstractParallelResourceVisitor extends AbstractIterativeResourceVisitor {
+
+    private final int forkDepth;
+
+    /**
+     * Create a visitor without depth limit, which visits the subtree of each child
+     * of the given resource in a separate task.
+     */
+    protected AbstractParallelResourceVisitor() {
+        this(Integer.MAX_VALUE, 1);
+    }
+
+    /**
+     * Create a visitor.
+     * @param maxDepth The maximum depth of the visited resources, relative to the
+     *            resource passed to {@link #accept(Resource, ForkJoinPool)}, which has the depth 0.
+     * @param forkDepth The maximum depth of the resources which are visited in separate tasks
+     * @throws IllegalArgumentException If {@code maxDepth} is negative or {@code forkDepth}
+     *             is less than 1
+     */
+    protected AbstractParallelResourceVisitor(final int maxDepth, final int forkDepth) {
+        super(Order.DEPTH_FIRST, maxDepth);
+        if (forkDepth < 1) {
+            throw new IllegalArgumentException("forkDepth must be at least 1");
+        }
+        this.forkDepth = forkDepth;
+    }
+
+    /**
+     * Visit the given resource and all its descendants in parallel.
+     * This method returns once all resources have been visited.
+     *
+     * @param res The resource
+     * @param pool The pool to run the tasks
+     * @throws SlingException If the resource resolver cannot be cloned
+     * @throws RuntimeException Any exception thrown by {@link #visit(Resource)}
+     */
+    public void accept(final Resource res, final @NotNull ForkJoinPool pool) {
+        if (res != null) {
+            try (final Resolvers resolvers = new Resolvers(res.getResourceResolver())) {
+                pool.invoke(new VisitTask(resolvers, res, res.getPath(), 0));
+            }
+        }
+    }
+
+    /**
+     * Visits a resource and, depending on its depth, forks tasks for its
+     * children or traverses its subtree.
+     */
+    private final class VisitTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Resolvers resolvers;
+
+        private final transient Resource resource;
+
+        private final String path;
+
+        private final int depth;
+
+        VisitTask(final Resolvers resolvers, final @Nullable Resource resource, final String path, final int depth) {
+            this.resolvers = resolvers;
+            this.resource = resource;
+            this.path = path;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            final Resource res =
+                    this.resource != null ? this.resource : resolvers.get().getResource(this.path);
+            if (res == null) {
+                // removed in the meantime
+                return;
+            }
+            if (this.depth >= forkDepth) {
+                accept(res, this.depth);
+                return;
+            }
+            visit(res);
+            if (descend(res, this.depth)) {
+                // collect the children first, the resource resolver of this thread
+                // might be used by other tasks while waiting for the forked tasks
+                final List<VisitTask> tasks = new ArrayList<>();
+                final Iterator<Resource> children = res.listChildren();
+                while (children.hasNext()) {
+                    tasks.add(
+                            new VisitTask(this.resolvers, null, children.next().getPath(), this.depth + 1));
+                }
+                invokeAll(tasks);
+            }
+        }
+    }
+
+    /**
+     * The clones of the resource resolver, one per thread.
+     */
+    private static final class Resolvers implements AutoCloseable {
+
+        private final ResourceResolver resolver;
+
+        private final Map<Thread, ResourceResolver> clones = new ConcurrentHashMap<>();
+
+        Resolvers(final ResourceResolver resolver) {
+            this.resolver = resolver;
+        }
+
+        ResourceResolver get() {
+            return this.clones.computeIfAbsent(Thread.currentThread(), thread -> {
+                // the resource resolver is not thread-safe
+                synchronized (this) {
+                    try {
+                        return this.resolver.clone(null);
+                    } catch (final LoginException e) {
+                        throw new SlingException("Unable to clone resource resolver", e);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void close() {
+            for (final ResourceResolver clone : this.clones.values()) {
+                clone.close();
+            }
+            this.clones.clear();
+        }
+    }
+}
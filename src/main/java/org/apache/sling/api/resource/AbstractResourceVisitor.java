@@ -32,6 +32,8 @@ import org.jetbrains.annotations.NotNull;
  * parts of the subtree or stop traversal at a certain point rather use
  * {@link org.apache.sling.resource.filter.ResourceStream} or
  * {@link org.apache.sling.resource.filter.ResourceFilterStream}.
+ * For deep trees, breadth-first or limited traversals use {@link AbstractIterativeResourceVisitor},
+ * for a parallel traversal use {@link AbstractParallelResourceVisitor}.
  *
  * @see <a href="https://en.wikipedia.org/wiki/Depth-first_search">Depth-First-Search</a>
  * @since 2.2 (Sling API Bundle 2.2.0)
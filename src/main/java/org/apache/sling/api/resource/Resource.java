@@ -222,6 +222,10 @@ public interface Resource extends Adaptable {
     /**
      * Returns a value map for this resource.
      * The value map allows to read the properties of the resource.
+     * <p>
+     * Implementations with read-only properties are encouraged to return a
+     * {@link org.apache.sling.api.wrappers.CompactValueMap}, which has a much
+     * smaller memory footprint than a value map backed by a hash map.
      * @return A value map
      * @since 2.5 (Sling API Bundle 2.7.0)
      */
@@ -801,6 +801,63 @@ public interface ResourceResolver extends Adaptable, Closeable {
     Resource create(@NotNull Resource parent, @NotNull String name, Map<String, Object> properties)
             throws PersistenceException;
 
+    /**
+     * Create a unique name for a child of the given parent resource, based on
+     * the given name. If there is no child with the given name, the name is
+     * returned as is, otherwise a number is appended to it.
+     * <p>
+     * Resource providers may allocate the name in a single operation, for
+     * example using a sequence or by seeking in their sorted children.
+     * The default implementation probes for existing children as described in
+     * {@link ResourceUtil#createUniqueChildName(Resource, String)}.
+     * <p>
+     * The name is not reserved: a concurrent session might create a child with
+     * the same name before this resource resolver does.
+     *
+     * @param parent The parent resource
+     * @param name The requested name of the child resource - this is a plain name, not a path!
+     * @return A name for which no child exists
+     * @throws PersistenceException If no unique name can be found
+     * @throws IllegalStateException if this resource resolver has already been
+     *             {@link #close() closed}.
+     * @since 2.15.0 (Sling API Bundle 3.0.3)
+     */
+    default @NotNull String createUniqueChildName(@NotNull Resource parent, @NotNull String name)
+            throws PersistenceException {
+        return ResourceUtil.probeUniqueChildName(parent, name);
+    }
+
+    /**
+     * Get the resource at the given absolute path, creating it and all its
+     * missing ancestors if it does not exist yet.
+     * <p>
+     * Resource providers may create the missing resources in a single
+     * operation. The default implementation looks for the closest existing
+     * ancestor, starting at the given path, and then creates the missing
+     * resources top-down with {@link #create(Resource, String, Map)}.
+     * <p>
+     * The changes are transient and require a call to {@link #commit()} for persisting.
+     *
+     * @param path The absolute path of the resource
+     * @param properties The optional properties of the resource, if it is created
+     * @param intermediateProperties The optional properties of the ancestors
+     *            which are created
+     * @return The existing or created resource
+     * @throws UnsupportedOperationException If the resource provider does not allow to
+     *                                       create a resource at this location
+     * @throws PersistenceException If the operation fails.
+     * @throws IllegalStateException if this resource resolver has already been
+     *             {@link #close() closed}.
+     * @since 2.15.0 (Sling API Bundle 3.0.3)
+     */
+    default @NotNull Resource getOrCreateResource(
+            @NotNull String path,
+            @Nullable Map<String, Object> properties,
+            @Nullable Map<String, Object> intermediateProperties)
+            throws PersistenceException {
+        return ResourceUtil.createMissingResources(this, path, properties, intermediateProperties);
+    }
+
     /**
      * Orders the child resources returned by {@link #getChildren(Resource)} and {@link #listChildren(Resource)} so that a given resource is listed before the given sibling resource.
      *
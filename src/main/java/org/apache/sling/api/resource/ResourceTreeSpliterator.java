@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.resource;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A spliterator traversing a resource tree depth-first, lazily listing the
+ * children of a resource once the traversal reaches it.
+ * <p>
+ * The spliterator does not split: all resources are read with the resource
+ * resolver of the root, which must not be used by several threads.
+ *
+ * @see ResourceUtil#streamTree(Resource, int, Predicate)
+ */
+final class ResourceTreeSpliterator implements Spliterator<Resource> {
+
+    /**
+     * The not yet traversed children at a level of the tree.
+     */
+    private static final class Level {
+
+        final Iterator<Resource> children;
+
+        final int depth;
+
+        Level(final Iterator<Resource> children, final int depth) {
+            this.children = children;
+            this.depth = depth;
+        }
+    }
+
+    private final int maxDepth;
+
+    private final Predicate<Resource> branchSelector;
+
+    /** The resource to return first, {@code null} once it has been returned. */
+    private Resource root;
+
+    /** The last returned resource, whose children are not listed yet. */
+    private Resource expand;
+
+    private int expandDepth;
+
+    /** The levels, the deepest one first. */
+    private final Deque<Level> levels;
+
+    ResourceTreeSpliterator(
+            final @NotNull Resource root, final int maxDepth, final @Nullable Predicate<Resource> branchSelector) {
+        this.root = root;
+        this.maxDepth = maxDepth;
+        this.branchSelector = branchSelector;
+        this.levels = new ArrayDeque<>();
+    }
+
+    private boolean descend(final Resource resource, final int depth) {
+        if (depth < this.maxDepth && (this.branchSelector == null || this.branchSelector.test(resource))) {
+            this.levels.push(new Level(resource.listChildren(), depth + 1));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * List the children of the last returned resource, which is only done once
+     * the traversal continues, so a short-circuiting stream lists no more than necessary.
+     */
+    private void expand() {
+        if (this.expand != null) {
+            final Resource resource = this.expand;
+            this.expand = null;
+            this.descend(resource, this.expandDepth);
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super Resource> action) {
+        if (this.root != null) {
+            final Resource resource = this.root;
+            this.root = null;
+            this.expand = resource;
+            this.expandDepth = 0;
+            action.accept(resource);
+            return true;
+        }
+        this.expand();
+        while (!this.levels.isEmpty()) {
+            final Level level = this.levels.peek();
+            if (level.children.hasNext()) {
+                final Resource resource = level.children.next();
+                this.expand = resource;
+                this.expandDepth = level.depth;
+                action.accept(resource);
+                return true;
+            }
+            this.levels.pop();
+        }
+        return false;
+    }
+
+    @Override
+    public Spliterator<Resource> trySplit() {
+        // the resource resolver is not thread-safe, so the traversal is never shared
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+}
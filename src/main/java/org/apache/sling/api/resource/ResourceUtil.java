@@ -19,17 +19,25 @@
 package org.apache.sling.api.resource;
 
 import java.text.MessageFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.apache.sling.api.wrappers.ValueMapDecorator;
 import org.jetbrains.annotations.NotNull;
@@ -44,7 +52,8 @@ import org.jetbrains.annotations.Nullable;
  */
 public class ResourceUtil {
 
-    private static final Pattern UNICODE_ESCAPE_SEQUENCE_PATTERN = Pattern.compile("\\\\u[0-9a-fA-F]{4}");
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
     /**
      * Resolves relative path segments '.' and '..' in the path.
      * The path can either be relative or absolute. Relative paths are treated
@@ -55,6 +64,10 @@ public class ResourceUtil {
      * @return The normalized path or {@code null}.
      */
     public static @Nullable String normalize(@NotNull String path) {
+        // fast path: most paths are already normalized, return them as is
+        if (isNormalized(path)) {
+            return path;
+        }
         // remove trailing slashes
         path = removeTrailingSlashes(path);
         // don't care for empty paths or just slash
@@ -68,45 +81,70 @@ public class ResourceUtil {
             startPos++;
         }
 
-        // split into segments
-        final String[] parts = path.substring(startPos).split("/");
-        String[] newParts = new String[parts.length];
-        int newPartsPos = 0;
-        for (final String part : parts) {
+        // single pass over the segments, remembering where each retained
+        // segment starts in the result to be able to drop it again for '..'
+        final StringBuilder sb = new StringBuilder(path.length());
+        int[] segmentStarts = new int[8];
+        int depth = 0;
+        int segmentStart = startPos;
+        while (segmentStart <= path.length()) {
+            int segmentEnd = path.indexOf('/', segmentStart);
+            if (segmentEnd == -1) {
+                segmentEnd = path.length();
+            }
             // check each segment for empty and dots
-            final int dotCount = countDotsSegment(part);
-            if (part.isEmpty() || dotCount == 1) {
+            final int dotCount = countDotsSegment(path, segmentStart, segmentEnd);
+            if (segmentEnd == segmentStart || dotCount == 1) {
                 // ignore
             } else if (dotCount == 2) {
-                if (newPartsPos == 0) {
+                if (depth == 0) {
                     // can't go above root
                     return null;
                 }
-                newPartsPos--;
+                depth--;
+                sb.setLength(segmentStarts[depth]);
             } else if (dotCount > 2) {
                 // invalid
                 return null;
             } else {
-                newParts[newPartsPos++] = part;
+                if (depth == segmentStarts.length) {
+                    segmentStarts = Arrays.copyOf(segmentStarts, depth * 2);
+                }
+                segmentStarts[depth++] = sb.length();
+                if (sb.length() > 0 || startPos > 0) {
+                    sb.append('/');
+                }
+                sb.append(path, segmentStart, segmentEnd);
             }
-        }
-        // nothing changed ?
-        if (newPartsPos == newParts.length && startPos < 2) {
-            return path;
+            segmentStart = segmentEnd + 1;
         }
         // only slash
-        if (newPartsPos == 0 && startPos > 0) {
+        if (depth == 0 && startPos > 0) {
             return "/";
         }
-        // reconstruct (we don't use String.join as array elements might be null)
-        final StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < newPartsPos; i++) {
-            if (i > 0 || startPos > 0) {
-                sb.append('/');
+        return sb.toString();
+    }
+
+    /**
+     * Check whether {@link #normalize(String)} would return the path unchanged:
+     * no trailing slash (except for the root), at most one leading slash, no
+     * empty segments and no segments only consisting of dots.
+     */
+    private static boolean isNormalized(final String path) {
+        final int length = path.length();
+        if (length == 0 || (length == 1 && path.charAt(0) == '/')) {
+            return true;
+        }
+        int segmentStart = path.charAt(0) == '/' ? 1 : 0;
+        for (int i = segmentStart; i <= length; i++) {
+            if (i == length || path.charAt(i) == '/') {
+                if (i == segmentStart || countDotsSegment(path, segmentStart, i) > 0) {
+                    return false;
+                }
+                segmentStart = i + 1;
             }
-            sb.append(newParts[i]);
         }
-        return sb.toString();
+        return true;
     }
 
     /**
@@ -129,16 +167,18 @@ public class ResourceUtil {
 
     /**
      * Return the number of dots in the segment, if the segment only contains dots
-     * @param segment The segment
+     * @param path The path containing the segment
+     * @param start The start index of the segment, inclusive
+     * @param end The end index of the segment, exclusive
      * @return The number of dots or 0 if the segment contains no dot or other characters.
      */
-    private static int countDotsSegment(final String segment) {
-        for (int i = 0; i < segment.length(); i++) {
-            if (segment.charAt(i) != '.') {
+    private static int countDotsSegment(final String path, final int start, final int end) {
+        for (int i = start; i < end; i++) {
+            if (path.charAt(i) != '.') {
                 return 0;
             }
         }
-        return segment.length();
+        return end - start;
     }
 
     /**
@@ -162,37 +202,38 @@ public class ResourceUtil {
         // normalize path (remove . and ..)
         path = normalize(path);
 
-        // if normalized to root, there is no parent
-        if (path == null || "/".equals(path)) {
+        // if the path can't be normalized, there is no parent
+        if (path == null) {
             return null;
         }
+        return getParentOfNormalized(path);
+    }
 
-        String workspaceName = null;
-
-        final int wsSepPos = path.indexOf(":/");
-        if (wsSepPos != -1) {
-            workspaceName = path.substring(0, wsSepPos);
-            path = path.substring(wsSepPos + 1);
+    /**
+     * Returns the parent of a path already normalized by {@link #normalize(String)}
+     * or returned by this method, cutting the path only once.
+     */
+    private static @Nullable String getParentOfNormalized(final String path) {
+        if ("/".equals(path)) {
+            return null;
         }
 
         // find the last slash, after which to cut off
-        int lastSlash = path.lastIndexOf('/');
+        final int lastSlash = path.lastIndexOf('/');
         if (lastSlash < 0) {
             // no slash in the path
             return null;
+        }
+
+        final int wsSepPos = path.indexOf(":/");
+        if (wsSepPos != -1 && lastSlash == wsSepPos + 1) {
+            // parent is the workspace root, unless this is the workspace root itself
+            return lastSlash == path.length() - 1 ? null : path.substring(0, lastSlash + 1);
         } else if (lastSlash == 0) {
             // parent is root
-            if (workspaceName != null) {
-                return workspaceName + ":/";
-            }
             return "/";
         }
-
-        String parentPath = path.substring(0, lastSlash);
-        if (workspaceName != null) {
-            return workspaceName + ":" + parentPath;
-        }
-        return parentPath;
+        return path.substring(0, lastSlash);
     }
 
     /**
@@ -219,12 +260,13 @@ public class ResourceUtil {
         if (level < 0) {
             throw new IllegalArgumentException("level must be non-negative");
         }
-        String result = path;
-        for (int i = 0; i < level; i++) {
-            result = getParent(result);
-            if (result == null) {
-                break;
-            }
+        if (level == 0) {
+            return path;
+        }
+        // only the first step needs to normalize the path
+        String result = getParent(path);
+        for (int i = 1; i < level && result != null; i++) {
+            result = getParentOfNormalized(result);
         }
         return result;
     }
@@ -308,10 +350,31 @@ public class ResourceUtil {
      * @since 2.14.0 (Sling API Bundle 3.0.0)
      */
     public static @NotNull String escapeName(@NotNull String name) {
-        if (name.chars().allMatch(c -> c == '.')) {
-            return escapeWithUnicode(name, '.');
+        final char escapedChar = isOnlyDots(name) ? '.' : '/';
+        // always escape the backslash as it used for unicode escaping itself
+        int pos = 0;
+        while (pos < name.length()) {
+            final char c = name.charAt(pos);
+            if (c == '\\' || c == escapedChar) {
+                break;
+            }
+            pos++;
         }
-        return escapeWithUnicode(name, '/');
+        if (pos == name.length()) {
+            // nothing to escape
+            return name;
+        }
+        final StringBuilder sb = new StringBuilder(name.length() + 16);
+        sb.append(name, 0, pos);
+        for (; pos < name.length(); pos++) {
+            final char c = name.charAt(pos);
+            if (c == '\\' || c == escapedChar) {
+                appendUnicodeEscapeSequence(sb, c);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
     }
 
     /**
@@ -328,33 +391,79 @@ public class ResourceUtil {
         return unescapeWithUnicode(escapedName);
     }
 
-    private static String escapeWithUnicode(String text, Character... additionalCharactersToEscape) {
-        List<Character> charactersToEscape = new LinkedList<>();
-        charactersToEscape.add('\\'); // always escape the backslash as it used for unicode escaping itself
-        charactersToEscape.addAll(Arrays.asList(additionalCharactersToEscape));
-        for (Character characterToEscape : charactersToEscape) {
-            String escapedChar = getUnicodeEscapeSequence(characterToEscape);
-            text = text.replace(characterToEscape.toString(), escapedChar);
+    private static boolean isOnlyDots(final String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) != '.') {
+                return false;
+            }
         }
-        return text;
+        return true;
     }
 
-    private static String getUnicodeEscapeSequence(char c) {
-        return String.format("\\u%04X", (int) c);
+    private static void appendUnicodeEscapeSequence(final StringBuilder sb, final char c) {
+        sb.append('\\')
+                .append('u')
+                .append(HEX_DIGITS[(c >> 12) & 0xF])
+                .append(HEX_DIGITS[(c >> 8) & 0xF])
+                .append(HEX_DIGITS[(c >> 4) & 0xF])
+                .append(HEX_DIGITS[c & 0xF]);
     }
 
-    private static String unescapeWithUnicode(String escapedText) {
-        Matcher matcher = UNICODE_ESCAPE_SEQUENCE_PATTERN.matcher(escapedText);
+    private static String unescapeWithUnicode(final String escapedText) {
+        int pos = escapedText.indexOf('\\');
+        if (pos == -1) {
+            // nothing to unescape
+            return escapedText;
+        }
+        StringBuilder sb = null;
+        int copied = 0;
+        while (pos != -1 && pos + 6 <= escapedText.length()) {
+            final int value = parseUnicodeEscapeSequence(escapedText, pos);
+            if (value == -1) {
+                pos = escapedText.indexOf('\\', pos + 1);
+            } else {
+                if (sb == null) {
+                    sb = new StringBuilder(escapedText.length());
+                }
+                sb.append(escapedText, copied, pos).append((char) value);
+                copied = pos + 6;
+                pos = escapedText.indexOf('\\', copied);
+            }
+        }
+        if (sb == null) {
+            return escapedText;
+        }
+        return sb.append(escapedText, copied, escapedText.length()).toString();
+    }
 
-        StringBuilder decodedString = new StringBuilder();
+    /**
+     * Parse a unicode escape sequence (a backslash, {@code u} and four hex digits) at the given position.
+     * @return The escaped character or {@code -1} if there is no valid sequence at the position
+     */
+    private static int parseUnicodeEscapeSequence(final String text, final int pos) {
+        if (text.charAt(pos + 1) != 'u') {
+            return -1;
+        }
+        int value = 0;
+        for (int i = pos + 2; i < pos + 6; i++) {
+            final int digit = hexDigitValue(text.charAt(i));
+            if (digit == -1) {
+                return -1;
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
 
-        while (matcher.find()) {
-            String unicodeSequence = matcher.group();
-            char unicodeChar = (char) Integer.parseInt(unicodeSequence.substring(2), 16);
-            matcher.appendReplacement(decodedString, Character.toString(unicodeChar));
+    private static int hexDigitValue(final char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        } else if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        } else if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
         }
-        matcher.appendTail(decodedString);
-        return decodedString.toString();
+        return -1;
     }
 
     /**
@@ -450,6 +559,50 @@ public class ResourceUtil {
         return parent.getResourceResolver().listChildren(parent);
     }
 
+    /**
+     * Returns a lazy stream of the given resource and all its descendants, in
+     * depth-first order. The children of a resource are only listed once the
+     * stream reaches it, so short-circuiting operations like
+     * {@link Stream#findFirst()} or {@link Stream#limit(long)} stop the traversal early.
+     *
+     * @param root The resource to start with
+     * @return The stream of resources
+     * @see #streamTree(Resource, int, Predicate)
+     * @since 2.15.0 (Sling API Bundle 3.0.3)
+     */
+    public static @NotNull Stream<Resource> streamTree(final @NotNull Resource root) {
+        return streamTree(root, Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Returns a lazy stream of the given resource and its descendants, in
+     * depth-first order. The children of a resource are only listed once the
+     * stream reaches it, so short-circuiting operations like
+     * {@link Stream#findFirst()} or {@link Stream#limit(long)} stop the traversal early.
+     * <p>
+     * All resources are read with the resource resolver of {@code root}, which is
+     * not thread-safe, so the stream does not split: even a
+     * {@link Stream#parallel() parallel} stream traverses the tree in a single thread.
+     * To traverse a tree in parallel, use an {@link AbstractParallelResourceVisitor},
+     * which reads each subtree with its own resource resolver.
+     *
+     * @param root The resource to start with
+     * @param maxDepth The maximum depth of the returned resources, relative to
+     *            {@code root}, which has the depth 0
+     * @param branchSelector An optional predicate deciding whether the descendants
+     *            of a resource are traversed, {@code null} to traverse all of them
+     * @return The stream of resources
+     * @throws IllegalArgumentException If {@code maxDepth} is negative
+     * @since 2.15.0 (Sling API Bundle 3.0.3)
+     */
+    public static @NotNull Stream<Resource> streamTree(
+            final @NotNull Resource root, final int maxDepth, final @Nullable Predicate<Resource> branchSelector) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("maxDepth must be non-negative");
+        }
+        return StreamSupport.stream(new ResourceTreeSpliterator(root, maxDepth, branchSelector), false);
+    }
+
     /**
      * Returns an <code>ValueMap</code> object for the given
      * <code>Resource</code>. This method calls {@link Resource#getValueMap()}.
@@ -649,12 +802,17 @@ public class ResourceUtil {
      * If an exception occurs, it retries the operation up to five times if autoCommit is enabled.
      * In this case, {@link ResourceResolver#revert()} is called on the resolver before the
      * creation is retried.
+     * <p>
+     * The missing resources are created with
+     * {@link ResourceResolver#getOrCreateResource(String, Map, Map)} and committed
+     * together with a single commit. If the resource already exists, nothing is
+     * committed or reverted.
      *
      * @param resolver The resource resolver to use for creation
      * @param path     The full path to be created
      * @param resourceProperties The optional resource properties of the final resource to create
      * @param intermediateResourceType THe optional resource type of all intermediate resources
-     * @param autoCommit If set to true, a commit is performed after each resource creation.
+     * @param autoCommit If set to true, a commit is performed after the resources are created.
      * @return The resource for the path.
      * @throws org.apache.sling.api.SlingException If an error occurs trying to
      *             get/create the resource object from the path.
@@ -670,14 +828,33 @@ public class ResourceUtil {
             final String intermediateResourceType,
             final boolean autoCommit)
             throws PersistenceException {
+        final Map<String, Object> intermediateProperties;
+        if (intermediateResourceType == null) {
+            intermediateProperties = null;
+        } else {
+            intermediateProperties =
+                    Collections.singletonMap(ResourceResolver.PROPERTY_RESOURCE_TYPE, intermediateResourceType);
+        }
         PersistenceException mostRecentPE = null;
         for (int i = 0; i < 5; i++) {
+            Resource rsrc = resolver.getResource(path);
+            if (rsrc != null) {
+                // nothing to create, leave any pending changes of the caller alone
+                return rsrc;
+            }
             try {
-                return ResourceUtil.getOrCreateResourceInternal(
-                        resolver, path, resourceProperties, intermediateResourceType, autoCommit);
+                rsrc = resolver.getOrCreateResource(path, resourceProperties, intermediateProperties);
+                if (rsrc == null) {
+                    rsrc = createMissingResources(resolver, path, resourceProperties, intermediateProperties);
+                }
+                if (autoCommit) {
+                    resolver.commit();
+                }
+                return rsrc;
             } catch (final PersistenceException pe) {
                 if (autoCommit) {
                     // in case of exception, revert to last clean state and retry
+                    // this could be caused by someone else creating the resources concurrently
                     resolver.revert();
                     resolver.refresh();
                     mostRecentPE = pe;
@@ -690,84 +867,53 @@ public class ResourceUtil {
     }
 
     /**
-     * Creates or gets the resource at the given path.
+     * Gets the resource at the given path, creating the missing resources transiently.
+     * The closest existing ancestor is searched bottom-up, as usually only the
+     * last segments of the path are missing, and the missing resources are created top-down.
      *
      * @param resolver The resource resolver to use for creation
-     * @param path     The full path to be created
-     * @param resourceProperties The optional resource properties of the final resource to create
-     * @param intermediateResourceType THe optional resource type of all intermediate resources
-     * @param autoCommit If set to true, a commit is performed after each resource creation.
+     * @param path     The absolute path of the resource
+     * @param properties The optional resource properties of the final resource to create
+     * @param intermediateProperties The optional resource properties of all intermediate resources
      * @return The resource for the path.
-     * @throws org.apache.sling.api.SlingException If an error occurs trying to
-     *             get/create the resource object from the path.
-     * @throws IllegalStateException if the resource resolver has already been
-     *             closed}.
      * @throws PersistenceException If a persistence error occurs.
+     * @see ResourceResolver#getOrCreateResource(String, Map, Map)
      */
-    private static Resource getOrCreateResourceInternal(
-            final ResourceResolver resolver,
-            final String path,
-            final Map<String, Object> resourceProperties,
-            final String intermediateResourceType,
-            final boolean autoCommit)
+    static @NotNull Resource createMissingResources(
+            final @NotNull ResourceResolver resolver,
+            final @NotNull String path,
+            final @Nullable Map<String, Object> properties,
+            final @Nullable Map<String, Object> intermediateProperties)
             throws PersistenceException {
         Resource rsrc = resolver.getResource(path);
-        if (rsrc == null) {
-            final int lastPos = path.lastIndexOf('/');
-            final String name = path.substring(lastPos + 1);
-
-            final Resource parentResource;
-            if (lastPos == 0) {
-                parentResource = resolver.getResource("/");
-            } else {
-                final String parentPath = path.substring(0, lastPos);
-                parentResource = getOrCreateResource(
-                        resolver, parentPath, intermediateResourceType, intermediateResourceType, autoCommit);
+        if (rsrc != null) {
+            return rsrc;
+        }
+        int pos = path.length();
+        while (rsrc == null) {
+            pos = pos == 0 ? -1 : path.lastIndexOf('/', pos - 1);
+            if (pos == -1) {
+                throw new PersistenceException("Unable to create resource at " + path + ", no existing ancestor.");
             }
-            if (autoCommit) {
-                resolver.refresh();
+            rsrc = resolver.getResource(pos == 0 ? "/" : path.substring(0, pos));
+        }
+        while (pos < path.length()) {
+            int next = path.indexOf('/', pos + 1);
+            if (next == -1) {
+                next = path.length();
             }
-            try {
-                int retry = 5;
-                while (retry > 0 && rsrc == null) {
-                    rsrc = resolver.create(parentResource, name, resourceProperties);
-                    // check for SNS
-                    if (!name.equals(rsrc.getName())) {
-                        resolver.refresh();
-                        resolver.delete(rsrc);
-                        rsrc = resolver.getResource(parentResource, name);
-                    }
-                    retry--;
-                }
-                if (rsrc == null) {
-                    throw new PersistenceException("Unable to create resource.");
-                }
-            } catch (final PersistenceException pe) {
-                // this could be thrown because someone else tried to create this
-                // node concurrently
-                resolver.refresh();
-                rsrc = resolver.getResource(parentResource, name);
+            final String name = path.substring(pos + 1, next);
+            final Resource parent = rsrc;
+            rsrc = resolver.create(parent, name, next == path.length() ? properties : intermediateProperties);
+            // check for SNS
+            if (!name.equals(rsrc.getName())) {
+                resolver.delete(rsrc);
+                rsrc = resolver.getResource(parent, name);
                 if (rsrc == null) {
-                    throw pe;
-                }
-            }
-            if (autoCommit) {
-                try {
-                    resolver.commit();
-                    resolver.refresh();
-                    rsrc = resolver.getResource(parentResource, name);
-                } catch (final PersistenceException pe) {
-                    // try again - maybe someone else did create the resource in the meantime
-                    // or we ran into Jackrabbit's stale item exception in a clustered environment
-                    resolver.revert();
-                    resolver.refresh();
-                    rsrc = resolver.getResource(parentResource, name);
-                    if (rsrc == null) {
-                        rsrc = resolver.create(parentResource, name, resourceProperties);
-                        resolver.commit();
-                    }
+                    throw new PersistenceException("Unable to create resource at " + path);
                 }
             }
+            pos = next;
         }
         return rsrc;
     }
@@ -775,7 +921,16 @@ public class ResourceUtil {
     /**
      * Create a unique name for a child of the <code>parent</code>.
      * Creates a unique name and test if child already exists.
-     * If child resource with the same name exists, iterate until a unique one is found.
+     * If child resource with the same name exists, a unique one is searched
+     * by appending a number to the name.
+     * <p>
+     * The resource resolver of the parent is asked first via
+     * {@link ResourceResolver#createUniqueChildName(Resource, String)}, which
+     * allows the underlying resource provider to allocate the name efficiently.
+     * Without support from the provider, the numbers are probed with an
+     * exponential followed by a binary search, so the number of lookups grows
+     * logarithmically with the number of existing children of the same name.
+     * The returned name does not necessarily use the lowest free number.
      *
      * @param parent The parent resource
      * @param name   The name of the child resource
@@ -788,25 +943,56 @@ public class ResourceUtil {
      * @since 2.5 (Sling API Bundle 2.7.0)
      */
     public static String createUniqueChildName(final Resource parent, final String name) throws PersistenceException {
-        if (parent.getChild(name) != null) {
-            // leaf node already exists, create new unique name
-            String childNodeName = null;
-            int i = 0;
-            do {
-                childNodeName = name + String.valueOf(i);
+        final ResourceResolver resolver = parent.getResourceResolver();
+        if (resolver != null) {
+            return resolver.createUniqueChildName(parent, name);
+        }
+        return probeUniqueChildName(parent, name);
+    }
+
+    /**
+     * Find a unique child name by probing for existing children. First the
+     * upper bound of the taken numbers is found by doubling the number, then
+     * the first free number below is searched with a binary search.
+     *
+     * @param parent The parent resource
+     * @param name   The name of the child resource
+     * @return a unique non-existing name for child resource for a given <code>parent</code>
+     * @throws PersistenceException if it can not find unique name for child resource.
+     */
+    static @NotNull String probeUniqueChildName(final @NotNull Resource parent, final @NotNull String name)
+            throws PersistenceException {
+        if (parent.getChild(name) == null) {
+            return name;
+        }
+        // leaf node already exists, create new unique name
+        if (parent.getChild(name + 0) == null) {
+            return name + 0;
+        }
+        // exponential search for a free number, invariant: name + low exists
+        long low = 0;
+        long high = 1;
+        while (parent.getChild(name + high) != null) {
+            if (high >= Integer.MAX_VALUE) {
                 // just so that it does not run into an infinite loop
                 // this should not happen though :)
-                if (i == Integer.MAX_VALUE) {
-                    String message =
-                            MessageFormat.format("can not find a unique name {0} for {1}", name, parent.getPath());
-                    throw new PersistenceException(message);
-                }
-                i++;
-            } while (parent.getChild(childNodeName) != null);
-
-            return childNodeName;
+                final String message =
+                        MessageFormat.format("can not find a unique name {0} for {1}", name, parent.getPath());
+                throw new PersistenceException(message);
+            }
+            low = high;
+            high = Math.min(high * 2, Integer.MAX_VALUE);
         }
-        return name;
+        // binary search, invariant: name + low exists and name + high does not
+        while (high - low > 1) {
+            final long middle = (low + high) >>> 1;
+            if (parent.getChild(name + middle) != null) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        return name + high;
     }
 
     /**
@@ -833,24 +1019,252 @@ public class ResourceUtil {
      */
     public static class BatchResourceRemover {
 
+        /**
+         * Listener notified about the progress of a {@link BatchResourceRemover}.
+         * @since 2.15.0 (Sling API Bundle 3.0.3)
+         */
+        @FunctionalInterface
+        public interface ProgressListener {
+
+            /**
+             * Called after each commit done by the remover. If subtrees are deleted
+             * in parallel, this method is called from several threads.
+             *
+             * @param deleted The number of resources deleted so far, including the ones
+             *            which are not committed yet.
+             * @param elapsedNanos The nanoseconds elapsed since the remover started deleting,
+             *            which together with {@code deleted} gives the throughput.
+             */
+            void committed(long deleted, long elapsedNanos);
+        }
+
+        /** The number of subtrees to split a tree into for parallel deletion. */
+        private static final int PARALLEL_SUBTREES = 16;
+
+        /** The maximum number of resources read to split a tree. */
+        private static final int MAX_SPLIT_RESOURCES = 1024;
+
         private final int max;
 
         private int count;
 
+        private final AtomicLong deleted;
+
+        private ProgressListener listener;
+
+        private long startNanos;
+
+        private boolean started;
+
         public BatchResourceRemover(final int batchSize) {
             this.max = (batchSize < 1 ? 50 : batchSize);
+            this.deleted = new AtomicLong();
         }
 
+        /**
+         * Create a remover for a subtree, sharing the progress of the parent remover.
+         */
+        private BatchResourceRemover(final BatchResourceRemover parent) {
+            this.max = parent.max;
+            this.deleted = parent.deleted;
+            this.listener = parent.listener;
+            this.startNanos = parent.startNanos;
+            this.started = true;
+        }
+
+        /**
+         * Set the listener to be notified after each intermediate commit.
+         * @param listener The listener or {@code null}
+         * @return This remover
+         * @since 2.15.0 (Sling API Bundle 3.0.3)
+         */
+        public @NotNull BatchResourceRemover setProgressListener(@Nullable final ProgressListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Get the number of resources deleted by this remover so far.
+         * @return The number of deleted resources
+         * @since 2.15.0 (Sling API Bundle 3.0.3)
+         */
+        public long getDeletedCount() {
+            return this.deleted.get();
+        }
+
+        /**
+         * Delete the resource and all its descendants. The descendants are deleted
+         * before their parent, without recursion, so the depth of the tree is not
+         * limited by the stack size.
+         *
+         * @param rsrc The resource to delete
+         * @throws PersistenceException If deleting or an intermediate commit fails
+         */
         public void delete(@NotNull final Resource rsrc) throws PersistenceException {
+            start();
             final ResourceResolver resolver = rsrc.getResourceResolver();
-            for (final Resource child : rsrc.getChildren()) {
-                delete(child);
+            // post-order traversal: a resource is deleted once all its children are
+            final Deque<Resource> resources = new ArrayDeque<>();
+            final Deque<Iterator<Resource>> children = new ArrayDeque<>();
+            resources.push(rsrc);
+            children.push(rsrc.getChildren().iterator());
+            while (!resources.isEmpty()) {
+                final Iterator<Resource> iter = children.peek();
+                if (iter.hasNext()) {
+                    final Resource child = iter.next();
+                    resources.push(child);
+                    children.push(child.getChildren().iterator());
+                } else {
+                    children.pop();
+                    resolver.delete(resources.pop());
+                    deleted(resolver);
+                }
+            }
+        }
+
+        /**
+         * Delete the resource and all its descendants, deleting subtrees in parallel.
+         * <p>
+         * The tree is split breadth first, until there are at least
+         * {@value #PARALLEL_SUBTREES} subtrees or {@value #MAX_SPLIT_RESOURCES}
+         * resources have been read, so a tree with a single large child is split
+         * as well. The subtrees are distributed over at most {@value #PARALLEL_SUBTREES}
+         * tasks. Each task deletes its subtrees with its own
+         * {@link ResourceResolver#clone(Map) clone} of the resource resolver of
+         * {@code rsrc}, using intermediate commits as {@link #delete(Resource)} does,
+         * and commits once they are deleted. Finally the resources above the subtrees,
+         * including {@code rsrc}, are deleted with the resource resolver of {@code rsrc},
+         * which requires a final commit by the caller.
+         * <p>
+         * As the subtrees are committed independently, a failure may leave some
+         * of them deleted and others not.
+         * <p>
+         * The resources are deleted one by one through the resource resolver API.
+         * A bulk delete by the resource provider is deliberately not attempted,
+         * as the resource provider SPI has no operation for it.
+         *
+         * @param rsrc The resource to delete
+         * @param executor The executor to run the deletion of the subtrees
+         * @throws PersistenceException If deleting or committing fails, or if the
+         *             resource resolver cannot be cloned
+         * @since 2.15.0 (Sling API Bundle 3.0.3)
+         */
+        public void delete(@NotNull final Resource rsrc, @NotNull final ExecutorService executor)
+                throws PersistenceException {
+            start();
+            final ResourceResolver resolver = rsrc.getResourceResolver();
+            // split the tree breadth first, the resources above the subtrees are deleted last
+            final List<Resource> above = new ArrayList<>();
+            final List<String> subtrees = new ArrayList<>();
+            final Deque<Resource> queue = new ArrayDeque<>();
+            queue.add(rsrc);
+            int read = 0;
+            while (!queue.isEmpty()
+                    && queue.size() + subtrees.size() < PARALLEL_SUBTREES
+                    && read < MAX_SPLIT_RESOURCES) {
+                final Resource resource = queue.poll();
+                read++;
+                final Iterator<Resource> iter = resource.getChildren().iterator();
+                if (resource != rsrc && !iter.hasNext()) {
+                    subtrees.add(resource.getPath());
+                } else {
+                    above.add(resource);
+                    iter.forEachRemaining(queue::add);
+                }
+            }
+            for (final Resource resource : queue) {
+                subtrees.add(resource.getPath());
+            }
+
+            final int taskCount = Math.min(PARALLEL_SUBTREES, subtrees.size());
+            final List<Callable<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < taskCount; i++) {
+                final List<String> paths = new ArrayList<>();
+                for (int j = i; j < subtrees.size(); j += taskCount) {
+                    paths.add(subtrees.get(j));
+                }
+                tasks.add(() -> {
+                    deleteSubtrees(resolver, paths);
+                    return null;
+                });
+            }
+            PersistenceException failure = null;
+            try {
+                for (final Future<Void> future : executor.invokeAll(tasks)) {
+                    try {
+                        future.get();
+                    } catch (final ExecutionException e) {
+                        final Throwable cause = e.getCause();
+                        final PersistenceException pe = cause instanceof PersistenceException
+                                ? (PersistenceException) cause
+                                : new PersistenceException("Unable to delete below " + rsrc.getPath(), cause);
+                        if (failure == null) {
+                            failure = pe;
+                        } else {
+                            failure.addSuppressed(pe);
+                        }
+                    }
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PersistenceException("Interrupted while deleting " + rsrc.getPath(), e);
+            }
+            if (failure != null) {
+                throw failure;
             }
-            resolver.delete(rsrc);
+            // make the deletions of the other resource resolvers visible
+            resolver.refresh();
+            // children before their parents
+            for (int i = above.size() - 1; i >= 0; i--) {
+                resolver.delete(above.get(i));
+                deleted(resolver);
+            }
+        }
+
+        private void deleteSubtrees(final ResourceResolver resolver, final List<String> paths)
+                throws PersistenceException, LoginException {
+            final ResourceResolver clone;
+            // the resource resolver is not thread-safe
+            synchronized (this) {
+                clone = resolver.clone(null);
+            }
+            try {
+                final BatchResourceRemover remover = new BatchResourceRemover(this);
+                for (final String path : paths) {
+                    final Resource resource = clone.getResource(path);
+                    if (resource != null) {
+                        remover.delete(resource);
+                    }
+                }
+                if (remover.count > 0) {
+                    clone.commit();
+                    remover.notifyListener();
+                }
+            } finally {
+                clone.close();
+            }
+        }
+
+        private void start() {
+            if (!this.started) {
+                this.startNanos = System.nanoTime();
+                this.started = true;
+            }
+        }
+
+        private void deleted(final ResourceResolver resolver) throws PersistenceException {
+            this.deleted.incrementAndGet();
             count++;
             if (count >= max) {
                 resolver.commit();
                 count = 0;
+                notifyListener();
+            }
+        }
+
+        private void notifyListener() {
+            if (this.listener != null) {
+                this.listener.committed(this.deleted.get(), System.nanoTime() - this.startNanos);
             }
         }
     }
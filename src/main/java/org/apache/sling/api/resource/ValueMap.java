@@ -113,4 +113,124 @@ public interface ValueMap extends Map<String, Object> {
         }
         return value;
     }
+
+    /**
+     * Get a named property as an {@code int}.
+     * <p>
+     * This is equivalent to {@code get(name, Integer.class)} returning the
+     * default value for {@code null}, but avoids the conversion if the
+     * property value already is an {@link Integer} or a non-empty {@code int[]}
+     * (whose first element is returned).
+     *
+     * @param name The name of the property
+     * @param defaultValue The value to return if the named property does not
+     *            exist or cannot be converted to an {@code int}
+     * @return The named value as an {@code int} or the default value
+     * @throws RuntimeException if the underlying property cannot be accessed
+     * @since 2.15.0 (Sling API Bundle 3.0.3)
+     */
+    default int getInt(@NotNull String name, int defaultValue) {
+        final Object value = get(name);
+        if (value instanceof Integer) {
+            return (Integer) value;
+        }
+        if (value instanceof int[] && ((int[]) value).length > 0) {
+            return ((int[]) value)[0];
+        }
+        if (value == null) {
+            return defaultValue;
+        }
+        final Integer converted = get(name, Integer.class);
+        return converted != null ? converted : defaultValue;
+    }
+
+    /**
+     * Get a named property as a {@code long}.
+     * <p>
+     * This is equivalent to {@code get(name, Long.class)} returning the
+     * default value for {@code null}, but avoids the conversion if the
+     * property value already is a {@link Long} or a non-empty {@code long[]}
+     * (whose first element is returned).
+     *
+     * @param name The name of the property
+     * @param defaultValue The value to return if the named property does not
+     *            exist or cannot be converted to a {@code long}
+     * @return The named value as a {@code long} or the default value
+     * @throws RuntimeException if the underlying property cannot be accessed
+     * @since 2.15.0 (Sling API Bundle 3.0.3)
+     */
+    default long getLong(@NotNull String name, long defaultValue) {
+        final Object value = get(name);
+        if (value instanceof Long) {
+            return (Long) value;
+        }
+        if (value instanceof long[] && ((long[]) value).length > 0) {
+            return ((long[]) value)[0];
+        }
+        if (value == null) {
+            return defaultValue;
+        }
+        final Long converted = get(name, Long.class);
+        return converted != null ? converted : defaultValue;
+    }
+
+    /**
+     * Get a named property as a {@code double}.
+     * <p>
+     * This is equivalent to {@code get(name, Double.class)} returning the
+     * default value for {@code null}, but avoids the conversion if the
+     * property value already is a {@link Double} or a non-empty {@code double[]}
+     * (whose first element is returned).
+     *
+     * @param name The name of the property
+     * @param defaultValue The value to return if the named property does not
+     *            exist or cannot be converted to a {@code double}
+     * @return The named value as a {@code double} or the default value
+     * @throws RuntimeException if the underlying property cannot be accessed
+     * @since 2.15.0 (Sling API Bundle 3.0.3)
+     */
+    default double getDouble(@NotNull String name, double defaultValue) {
+        final Object value = get(name);
+        if (value instanceof Double) {
+            return (Double) value;
+        }
+        if (value instanceof double[] && ((double[]) value).length > 0) {
+            return ((double[]) value)[0];
+        }
+        if (value == null) {
+            return defaultValue;
+        }
+        final Double converted = get(name, Double.class);
+        return converted != null ? converted : defaultValue;
+    }
+
+    /**
+     * Get a named property as a {@code boolean}.
+     * <p>
+     * This is equivalent to {@code get(name, Boolean.class)} returning the
+     * default value for {@code null}, but avoids the conversion if the
+     * property value already is a {@link Boolean} or a non-empty {@code boolean[]}
+     * (whose first element is returned).
+     *
+     * @param name The name of the property
+     * @param defaultValue The value to return if the named property does not
+     *            exist or cannot be converted to a {@code boolean}
+     * @return The named value as a {@code boolean} or the default value
+     * @throws RuntimeException if the underlying property cannot be accessed
+     * @since 2.15.0 (Sling API Bundle 3.0.3)
+     */
+    default boolean getBoolean(@NotNull String name, boolean defaultValue) {
+        final Object value = get(name);
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof boolean[] && ((boolean[]) value).length > 0) {
+            return ((boolean[]) value)[0];
+        }
+        if (value == null) {
+            return defaultValue;
+        }
+        final Boolean converted = get(name, Boolean.class);
+        return converted != null ? converted : defaultValue;
+    }
 }
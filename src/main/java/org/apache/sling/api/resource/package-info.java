@@ -17,7 +17,7 @@
  * under the License.
  */
 
-@Version("2.14.0")
+@Version("2.15.0")
 package org.apache.sling.api.resource;
 
 import org.osgi.annotation.versioning.Version;
@@ -0,0 +1,331 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.resource.path;
+
+import org.apache.sling.api.resource.ResourceUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A read-only view on a normalized resource path or a part of it.
+ * <p>
+ * In contrast to the string based methods of {@link ResourceUtil}, the
+ * parent, name and segments of a {@code PathView} are slices of the
+ * original string: no characters are copied until {@link #toString()}
+ * is called. This makes it cheap to walk up a path or to iterate over
+ * its segments, for example to compare them with other names.
+ * <p>
+ * Workspace prefixes (like {@code ws:/path}) are handled like in
+ * {@link ResourceUtil#getParent(String)}: the parent of {@code ws:/a} is
+ * {@code ws:/}, which has no parent.
+ *
+ * @since 1.3.0 (Sling API Bundle 3.0.3)
+ */
+public final class PathView implements CharSequence {
+
+    private final String path;
+
+    private final int start;
+
+    private final int end;
+
+    private String string;
+
+    private PathView(final String path, final int start, final int end) {
+        this.path = path;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Create a view on the given path. The path is normalized with
+     * {@link ResourceUtil#normalize(String)} first, which does not copy it
+     * if it is already normalized.
+     *
+     * @param path The path, either absolute or relative
+     * @return The view on the normalized path
+     * @throws IllegalArgumentException If the path cannot be normalized
+     */
+    public static @NotNull PathView of(@NotNull final String path) {
+        final String normalized = ResourceUtil.normalize(path);
+        if (normalized == null) {
+            throw new IllegalArgumentException("Path " + path + " cannot be normalized");
+        }
+        final PathView view = new PathView(normalized, 0, normalized.length());
+        view.string = normalized;
+        return view;
+    }
+
+    /**
+     * Whether this is an absolute path.
+     * @return {@code true} if the path starts with a slash
+     */
+    public boolean isAbsolute() {
+        return start < end && path.charAt(start) == '/';
+    }
+
+    /**
+     * Whether this is the root path.
+     * @return {@code true} if the path is {@code /}
+     */
+    public boolean isRoot() {
+        return end - start == 1 && path.charAt(start) == '/';
+    }
+
+    /**
+     * Returns the parent path, without copying any characters.
+     *
+     * @return The parent or {@code null} if this is the root path or a
+     *         relative path with a single segment.
+     * @see ResourceUtil#getParent(String)
+     */
+    public @Nullable PathView getParent() {
+        if (isRoot()) {
+            return null;
+        }
+        final int lastSlash = lastSlash();
+        if (lastSlash == -1) {
+            return null;
+        }
+        final int wsSepPos = workspaceSeparator();
+        if (wsSepPos != -1 && lastSlash == wsSepPos + 1) {
+            // parent is the workspace root, unless this is the workspace root itself
+            return lastSlash == end - 1 ? null : new PathView(path, start, lastSlash + 1);
+        }
+        if (lastSlash == start) {
+            return new PathView(path, start, start + 1);
+        }
+        return new PathView(path, start, lastSlash);
+    }
+
+    /**
+     * Returns the ancestor at the given level, without copying any characters.
+     *
+     * @param level The level relative to this path, 0 returns this path
+     * @return The ancestor or {@code null} if there is none at this level.
+     * @throws IllegalArgumentException If {@code level} is negative
+     * @see ResourceUtil#getParent(String, int)
+     */
+    public @Nullable PathView getParent(final int level) {
+        if (level < 0) {
+            throw new IllegalArgumentException("level must be non-negative");
+        }
+        PathView result = this;
+        for (int i = 0; i < level && result != null; i++) {
+            result = result.getParent();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the last segment of the path, without copying any characters.
+     *
+     * @return The name, which is empty for the root path
+     * @see ResourceUtil#getName(String)
+     */
+    public @NotNull PathView getName() {
+        if (isRoot()) {
+            return new PathView(path, start, start);
+        }
+        return new PathView(path, lastSlash() + 1, end);
+    }
+
+    /**
+     * Returns the number of segments of this path, which is 0 for the root
+     * path and the empty path.
+     *
+     * @return The number of segments
+     */
+    public int getSegmentCount() {
+        if (start == end || isRoot()) {
+            return 0;
+        }
+        int count = 1;
+        for (int i = start + 1; i < end; i++) {
+            if (path.charAt(i) == '/') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns a cursor over the segments of this path.
+     *
+     * @return A new cursor, positioned before the first segment
+     */
+    public @NotNull SegmentCursor segments() {
+        return new SegmentCursor();
+    }
+
+    /**
+     * Whether the given path equals this path or is a descendant of it.
+     *
+     * @param other The other path, which should be normalized
+     * @return {@code true} if {@code other} is this path or below it
+     */
+    public boolean isAncestorOrSelfOf(@NotNull final CharSequence other) {
+        final int length = length();
+        if (other.length() < length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (other.charAt(i) != path.charAt(start + i)) {
+                return false;
+            }
+        }
+        return other.length() == length || isRoot() || other.charAt(length) == '/';
+    }
+
+    private int workspaceSeparator() {
+        for (int i = start; i < end - 1; i++) {
+            if (path.charAt(i) == ':' && path.charAt(i + 1) == '/') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int lastSlash() {
+        for (int i = end - 1; i >= start; i--) {
+            if (path.charAt(i) == '/') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(final int index) {
+        if (index < 0 || index >= end - start) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length());
+        }
+        return path.charAt(start + index);
+    }
+
+    @Override
+    public @NotNull PathView subSequence(final int from, final int to) {
+        if (from < 0 || to > end - start || from > to) {
+            throw new IndexOutOfBoundsException("from " + from + ", to " + to + ", length " + length());
+        }
+        return new PathView(path, start + from, start + to);
+    }
+
+    @Override
+    public @NotNull String toString() {
+        if (string == null) {
+            string = path.substring(start, end);
+        }
+        return string;
+    }
+
+    @Override
+    public int hashCode() {
+        // same as String.hashCode() without creating the string
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + path.charAt(i);
+        }
+        return hash;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof PathView)) {
+            return false;
+        }
+        final PathView other = (PathView) obj;
+        return other.length() == length() && path.regionMatches(start, other.path, other.start, length());
+    }
+
+    /**
+     * A cursor over the segments of a {@link PathView}. Calling {@link #next()}
+     * moves the cursor to the next segment, the other methods give access to
+     * the current segment without copying it.
+     */
+    public final class SegmentCursor {
+
+        private int segmentStart = -1;
+
+        private int segmentEnd;
+
+        private SegmentCursor() {}
+
+        /**
+         * Moves to the next segment.
+         * @return {@code true} if there is a next segment
+         */
+        public boolean next() {
+            int pos = segmentStart == -1 ? start : segmentEnd + 1;
+            if (pos < end && path.charAt(pos) == '/') {
+                pos++;
+            }
+            if (pos >= end) {
+                return false;
+            }
+            final int slash = path.indexOf('/', pos);
+            segmentStart = pos;
+            segmentEnd = slash == -1 || slash > end ? end : slash;
+            return true;
+        }
+
+        /**
+         * Returns the length of the current segment.
+         * @return The length
+         */
+        public int length() {
+            checkPosition();
+            return segmentEnd - segmentStart;
+        }
+
+        /**
+         * Returns the current segment, without copying it.
+         * @return The segment
+         */
+        public @NotNull PathView segment() {
+            checkPosition();
+            return new PathView(path, segmentStart, segmentEnd);
+        }
+
+        /**
+         * Compares the current segment to the given name without copying it.
+         * @param name The name
+         * @return {@code true} if the current segment equals the name
+         */
+        public boolean contentEquals(@NotNull final String name) {
+            checkPosition();
+            return name.length() == segmentEnd - segmentStart
+                    && path.regionMatches(segmentStart, name, 0, name.length());
+        }
+
+        private void checkPosition() {
+            if (segmentStart == -1) {
+                throw new IllegalStateException("next() has not been called");
+            }
+        }
+    }
+}
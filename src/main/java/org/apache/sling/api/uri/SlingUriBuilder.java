@@ -35,6 +35,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.sling.api.SlingJakartaHttpServletRequest;
+import org.apache.sling.api.request.IndexedRequestPathInfo;
 import org.apache.sling.api.request.RequestPathInfo;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceResolver;
@@ -81,7 +82,6 @@ public class SlingUriBuilder {
     static final String CHAR_COLON = ":";
     static final String CHAR_DOT = ".";
     static final String CHAR_SLASH = "/";
-    static final String SELECTOR_DOT_REGEX = "\\.(?!\\.?/)"; // (?!\\.?/) to avoid matching ./ and ../
     static final String PATH_PARAMETERS_REGEX = ";([a-zA-z0-9]+)=(?:\\'([^']*)\\'|([^/]+))";
     static final String BEST_EFFORT_INVALID_URI_MATCHER =
             "^(?:([^:#@]+):)?(?://(?:([^@#]+)@)?([^/#:]+)(?::([0-9]+))?)?(?:([^?#]+))?(?:\\?([^#]*))?(?:#(.*))?$";
@@ -388,19 +388,20 @@ public class SlingUriBuilder {
         path = extractPathParameters(path);
 
         // split in resource path, selectors, extension and suffix
-        Matcher dotMatcher;
         if (path != null && path.startsWith(SlingUriBuilder.CHAR_SLASH) && resourceResolver != null) {
             setResourcePath(path);
             rebaseResourcePath();
-        } else if (path != null
-                && (dotMatcher = Pattern.compile(SELECTOR_DOT_REGEX).matcher(path)).find()) {
-            int firstDotPosition = dotMatcher.start();
-            setPathWithDefinedResourcePosition(path, firstDotPosition);
         } else {
-            setSelectors(new String[] {});
-            setSuffix(null);
-            setExtension(null);
-            setResourcePath(path);
+            // the resource path ends at the first dot not followed by / or ./
+            final IndexedRequestPathInfo pathInfo = path != null ? IndexedRequestPathInfo.parse(path) : null;
+            if (pathInfo != null && pathInfo.getResourcePath().length() < path.length()) {
+                setPathInfo(pathInfo);
+            } else {
+                setSelectors(new String[] {});
+                setSuffix(null);
+                setExtension(null);
+                setResourcePath(path);
+            }
         }
 
         return this;
@@ -448,7 +449,7 @@ public class SlingUriBuilder {
         if (availableResourcePath.length() == path.length()) {
             resourcePath = availableResourcePath;
         } else {
-            setPathWithDefinedResourcePosition(path, availableResourcePath.length());
+            setPathInfo(IndexedRequestPathInfo.parse(path, availableResourcePath.length(), null));
         }
         return this;
     }
@@ -990,21 +991,15 @@ public class SlingUriBuilder {
         return requestUri.toString();
     }
 
-    private void setPathWithDefinedResourcePosition(String path, int firstDotPositionAfterResourcePath) {
-        setResourcePath(path.substring(0, firstDotPositionAfterResourcePath));
-        int firstSlashAfterFirstDotPosition = path.indexOf(CHAR_SLASH, firstDotPositionAfterResourcePath);
-        String pathWithoutSuffix = firstSlashAfterFirstDotPosition > -1
-                ? path.substring(firstDotPositionAfterResourcePath + 1, firstSlashAfterFirstDotPosition)
-                : path.substring(firstDotPositionAfterResourcePath + 1);
-        String[] pathBits = pathWithoutSuffix.split(SELECTOR_DOT_REGEX);
-        if (pathBits.length > 1) {
-            setSelectors(Arrays.copyOfRange(pathBits, 0, pathBits.length - 1));
-        }
-        setExtension(
-                pathBits.length > 0 && pathBits[pathBits.length - 1].length() > 0
-                        ? pathBits[pathBits.length - 1]
-                        : null);
-        setSuffix(firstSlashAfterFirstDotPosition > -1 ? path.substring(firstSlashAfterFirstDotPosition) : null);
+    private void setPathInfo(IndexedRequestPathInfo pathInfo) {
+        setResourcePath(pathInfo.getResourcePath());
+        List<String> pathSelectors = pathInfo.getSelectorList();
+        if (!pathSelectors.isEmpty()) {
+            this.selectors.clear();
+            this.selectors.addAll(pathSelectors);
+        }
+        setExtension(pathInfo.getExtension());
+        setSuffix(pathInfo.getSuffix());
     }
 
     private String extractPathParameters(String path) {
@@ -1087,6 +1082,16 @@ public class SlingUriBuilder {
             return getData().getSelectors();
         }
 
+        @Override
+        public List<String> getSelectorList() {
+            return Collections.unmodifiableList(getData().selectors);
+        }
+
+        @Override
+        public boolean hasSelector(String selector) {
+            return getData().selectors.contains(selector);
+        }
+
         @Override
         public String getExtension() {
             return getData().getExtension();
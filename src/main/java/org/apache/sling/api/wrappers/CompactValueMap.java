@@ -0,0 +1,565 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.wrappers;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.sling.api.resource.ValueMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An immutable {@link ValueMap} which stores its keys and values in two
+ * parallel arrays instead of a hash table.
+ * <p>
+ * Most resources only have a handful of properties, for which a linear scan
+ * over a small array is at least as fast as a hash lookup while avoiding
+ * the per-entry objects of a {@link java.util.HashMap}. The keys are held
+ * by a {@link Layout} which can be shared by all value maps having the same
+ * property names in the same order, so a resource provider returning many
+ * resources of the same shape only pays for the value array per resource.
+ * <p>
+ * Instances are created through a {@link Builder}, either from scratch with
+ * {@link #builder()} or for a known {@link Layout} with
+ * {@link Layout#newValueMap(Object...)}. This class is a good choice for the
+ * value map returned by {@link org.apache.sling.api.resource.Resource#getValueMap()}
+ * of resources whose properties are read-only.
+ *
+ * @since 2.12.0 (Sling API Bundle 3.0.3)
+ */
+public final class CompactValueMap extends AbstractMap<String, Object> implements ValueMap {
+
+    private static final String IMMUTABLE_ERROR_MESSAGE = "CompactValueMap is immutable";
+
+    /**
+     * Number of keys up to which lookups scan the key array linearly.
+     * Larger layouts use an open addressing hash index on top of the array.
+     */
+    static final int LINEAR_SCAN_THRESHOLD = 16;
+
+    private final Layout layout;
+
+    private final Object[] values;
+
+    private CompactValueMap(final Layout layout, final Object[] values) {
+        this.layout = layout;
+        this.values = values;
+    }
+
+    /**
+     * Create a new builder for a {@code CompactValueMap}.
+     *
+     * @return A new builder
+     */
+    public static @NotNull Builder builder() {
+        return new Builder(null);
+    }
+
+    /**
+     * Create a new builder which reuses the given layout if the
+     * properties added to the builder match the keys of the layout.
+     *
+     * @param layout The layout to share if possible
+     * @return A new builder
+     */
+    public static @NotNull Builder builder(@NotNull final Layout layout) {
+        return new Builder(layout);
+    }
+
+    /**
+     * Create a new {@code CompactValueMap} containing all entries of the given map.
+     * If the given map is already a {@code CompactValueMap}, it is returned as is.
+     *
+     * @param map The map to copy
+     * @return An immutable copy of the map
+     * @throws IllegalArgumentException If the map contains a {@code null} key
+     */
+    public static @NotNull CompactValueMap copyOf(@NotNull final Map<String, ?> map) {
+        if (map instanceof CompactValueMap) {
+            return (CompactValueMap) map;
+        }
+        return builder().putAll(map).build();
+    }
+
+    /**
+     * Returns the layout of this value map. The layout can be used to
+     * create further value maps with the same keys.
+     *
+     * @return The layout
+     */
+    public @NotNull Layout getLayout() {
+        return this.layout;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return this.values.length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return this.values.length == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(final Object key) {
+        return this.layout.indexOf(key) != -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsValue(final Object value) {
+        for (final Object v : this.values) {
+            if (Objects.equals(v, value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object get(final Object key) {
+        final int index = this.layout.indexOf(key);
+        return index == -1 ? null : this.values[index];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @NotNull Set<String> keySet() {
+        return this.layout.keySet;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @NotNull Collection<Object> values() {
+        return new AbstractCollection<Object>() {
+
+            @Override
+            public Iterator<Object> iterator() {
+                return new IndexIterator<Object>(values.length) {
+                    @Override
+                    Object element(final int index) {
+                        return values[index];
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return values.length;
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @NotNull Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new IndexIterator<Entry<String, Object>>(values.length) {
+                    @Override
+                    Entry<String, Object> element(final int index) {
+                        return new SimpleImmutableEntry<>(layout.keys[index], values[index]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return values.length;
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object put(final String key, final Object value) {
+        throw new UnsupportedOperationException(IMMUTABLE_ERROR_MESSAGE);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object remove(final Object key) {
+        throw new UnsupportedOperationException(IMMUTABLE_ERROR_MESSAGE);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void putAll(final Map<? extends String, ?> m) {
+        throw new UnsupportedOperationException(IMMUTABLE_ERROR_MESSAGE);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException(IMMUTABLE_ERROR_MESSAGE);
+    }
+
+    /**
+     * The layout of a {@link CompactValueMap}: the ordered set of its keys.
+     * <p>
+     * A layout is immutable and thread-safe. Resource providers should keep
+     * the layouts of frequently used property shapes (e.g. per node type) and
+     * create value maps via {@link #newValueMap(Object...)} or
+     * {@link CompactValueMap#builder(Layout)} to share the key arrays between
+     * all those value maps.
+     */
+    public static final class Layout {
+
+        /** The empty layout. */
+        private static final Layout EMPTY = new Layout(new String[0]);
+
+        private final String[] keys;
+
+        /**
+         * Hash index into {@link #keys} for large layouts, {@code null} for
+         * layouts which are scanned linearly. Slots contain the key index plus one,
+         * zero marks an empty slot.
+         */
+        private final int[] index;
+
+        private final Set<String> keySet;
+
+        private Layout(final String[] keys) {
+            this.keys = keys;
+            this.index = keys.length > LINEAR_SCAN_THRESHOLD ? buildIndex(keys) : null;
+            this.keySet = new KeySet();
+        }
+
+        /**
+         * Create a layout for the given keys.
+         *
+         * @param keys The keys, in iteration order
+         * @return The layout
+         * @throws IllegalArgumentException If a key is {@code null} or duplicated
+         */
+        public static @NotNull Layout of(@NotNull final String... keys) {
+            if (keys.length == 0) {
+                return EMPTY;
+            }
+            final String[] copy = Arrays.copyOf(keys, keys.length);
+            for (int i = 0; i < copy.length; i++) {
+                if (copy[i] == null) {
+                    throw new IllegalArgumentException("Key must not be null");
+                }
+                for (int j = 0; j < i; j++) {
+                    if (copy[j].equals(copy[i])) {
+                        throw new IllegalArgumentException("Duplicate key " + copy[i]);
+                    }
+                }
+            }
+            return new Layout(copy);
+        }
+
+        /**
+         * Create a new value map with this layout.
+         *
+         * @param values The values, in the order of the keys of this layout
+         * @return The value map
+         * @throws IllegalArgumentException If the number of values does not match the number of keys
+         */
+        public @NotNull CompactValueMap newValueMap(@NotNull final Object... values) {
+            if (values.length != this.keys.length) {
+                throw new IllegalArgumentException("Expected " + this.keys.length + " values but got " + values.length);
+            }
+            return new CompactValueMap(this, Arrays.copyOf(values, values.length));
+        }
+
+        /**
+         * Returns the number of keys in this layout.
+         *
+         * @return The number of keys
+         */
+        public int size() {
+            return this.keys.length;
+        }
+
+        /**
+         * Returns the keys of this layout, in iteration order.
+         *
+         * @return An unmodifiable set of the keys
+         */
+        public @NotNull Set<String> keySet() {
+            return this.keySet;
+        }
+
+        /**
+         * Returns the position of the given key in this layout.
+         *
+         * @param key The key
+         * @return The position or {@code -1} if the key is not part of this layout
+         */
+        public int indexOf(@Nullable final Object key) {
+            if (key == null) {
+                return -1;
+            }
+            if (this.index == null) {
+                // keys are usually string literals or interned, so try identity first
+                for (int i = 0; i < this.keys.length; i++) {
+                    if (this.keys[i] == key) {
+                        return i;
+                    }
+                }
+                for (int i = 0; i < this.keys.length; i++) {
+                    if (this.keys[i].equals(key)) {
+                        return i;
+                    }
+                }
+                return -1;
+            }
+            final int mask = this.index.length - 1;
+            int slot = spread(key.hashCode()) & mask;
+            while (this.index[slot] != 0) {
+                final int i = this.index[slot] - 1;
+                if (this.keys[i].equals(key)) {
+                    return i;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        /**
+         * Returns {@code true} if this layout has exactly the given keys in the given order.
+         */
+        boolean matches(final String[] otherKeys, final int length) {
+            if (this.keys.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (!this.keys[i].equals(otherKeys[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int[] buildIndex(final String[] keys) {
+            // load factor of at most 0.5 keeps probe sequences short
+            final int[] index = new int[Integer.highestOneBit(keys.length) << 2];
+            final int mask = index.length - 1;
+            for (int i = 0; i < keys.length; i++) {
+                int slot = spread(keys[i].hashCode()) & mask;
+                while (index[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                index[slot] = i + 1;
+            }
+            return index;
+        }
+
+        private static int spread(final int hash) {
+            return hash ^ (hash >>> 16);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof Layout && Arrays.equals(this.keys, ((Layout) obj).keys);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(this.keys);
+        }
+
+        @Override
+        public String toString() {
+            return "Layout" + Arrays.toString(this.keys);
+        }
+
+        private final class KeySet extends AbstractSet<String> {
+
+            @Override
+            public boolean contains(final Object o) {
+                return indexOf(o) != -1;
+            }
+
+            @Override
+            public Iterator<String> iterator() {
+                return new IndexIterator<String>(keys.length) {
+                    @Override
+                    String element(final int index) {
+                        return keys[index];
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        }
+    }
+
+    /**
+     * Builder for a {@link CompactValueMap}.
+     * <p>
+     * A builder is not thread-safe. It can be reused after {@link #build()}
+     * has been called, further calls to {@link #put(String, Object)} start
+     * a new value map.
+     */
+    public static final class Builder {
+
+        private final Layout layout;
+
+        private String[] keys;
+
+        private Object[] values;
+
+        private int size;
+
+        private Builder(final Layout layout) {
+            this.layout = layout;
+            final int capacity = layout != null && layout.size() > 0 ? layout.size() : 8;
+            this.keys = new String[capacity];
+            this.values = new Object[capacity];
+        }
+
+        /**
+         * Add a property. If a property with the same name has already been
+         * added, its value is replaced.
+         *
+         * @param key The property name
+         * @param value The property value
+         * @return This builder
+         * @throws IllegalArgumentException If the key is {@code null}
+         */
+        public @NotNull Builder put(@NotNull final String key, @Nullable final Object value) {
+            if (key == null) {
+                throw new IllegalArgumentException("Key must not be null");
+            }
+            for (int i = 0; i < this.size; i++) {
+                if (this.keys[i].equals(key)) {
+                    this.values[i] = value;
+                    return this;
+                }
+            }
+            if (this.size == this.keys.length) {
+                this.keys = Arrays.copyOf(this.keys, this.size * 2);
+                this.values = Arrays.copyOf(this.values, this.size * 2);
+            }
+            this.keys[this.size] = key;
+            this.values[this.size] = value;
+            this.size++;
+            return this;
+        }
+
+        /**
+         * Add all entries of the given map.
+         *
+         * @param map The map
+         * @return This builder
+         * @throws IllegalArgumentException If the map contains a {@code null} key
+         */
+        public @NotNull Builder putAll(@NotNull final Map<String, ?> map) {
+            for (final Map.Entry<String, ?> entry : map.entrySet()) {
+                put(entry.getKey(), entry.getValue());
+            }
+            return this;
+        }
+
+        /**
+         * Create the value map. The layout passed to
+         * {@link CompactValueMap#builder(Layout)} is reused if the added
+         * keys match it, otherwise a new layout is created.
+         *
+         * @return The value map
+         */
+        public @NotNull CompactValueMap build() {
+            final Layout result;
+            if (this.size == 0) {
+                result = Layout.EMPTY;
+            } else if (this.layout != null && this.layout.matches(this.keys, this.size)) {
+                result = this.layout;
+            } else {
+                result = new Layout(Arrays.copyOf(this.keys, this.size));
+            }
+            final CompactValueMap map = new CompactValueMap(result, Arrays.copyOf(this.values, this.size));
+            Arrays.fill(this.keys, 0, this.size, null);
+            Arrays.fill(this.values, 0, this.size, null);
+            this.size = 0;
+            return map;
+        }
+    }
+
+    private abstract static class IndexIterator<E> implements Iterator<E> {
+
+        private final int size;
+
+        private int next;
+
+        IndexIterator(final int size) {
+            this.size = size;
+        }
+
+        abstract E element(int index);
+
+        @Override
+        public boolean hasNext() {
+            return this.next < this.size;
+        }
+
+        @Override
+        public E next() {
+            if (this.next >= this.size) {
+                throw new NoSuchElementException();
+            }
+            return element(this.next++);
+        }
+    }
+}
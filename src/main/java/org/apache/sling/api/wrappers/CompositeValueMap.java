@@ -18,9 +18,13 @@
  */
 package org.apache.sling.api.wrappers;
 
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 import org.apache.sling.api.resource.ValueMap;
@@ -36,6 +40,11 @@ import org.jetbrains.annotations.Nullable;
  * In case you would like to avoid duplicating properties on multiple resources,
  * you can use a <code>CompositeValueMap</code> to get a concatenated map of
  * properties.
+ * <p>
+ * The collections returned by {@link #keySet()}, {@link #values()} and
+ * {@link #entrySet()} are unmodifiable views which walk the properties and
+ * then the defaults without building an intermediate map, so they always
+ * reflect the current content of both underlying maps.
  *
  * @since 2.3 (Sling API Bundle 2.5.0)
  *
@@ -128,7 +137,18 @@ public class CompositeValueMap implements ValueMap {
      * {@inheritDoc}
      */
     public int size() {
-        return keySet().size();
+        int size = 0;
+        for (final String key : properties.keySet()) {
+            if (merge || defaults.containsKey(key)) {
+                size++;
+            }
+        }
+        for (final String key : defaults.keySet()) {
+            if (!properties.containsKey(key)) {
+                size++;
+            }
+        }
+        return size;
     }
 
     /**
@@ -145,14 +165,22 @@ public class CompositeValueMap implements ValueMap {
      * {@inheritDoc}
      */
     public boolean containsKey(final Object key) {
-        return keySet().contains(key.toString());
+        final String name = key.toString();
+        return defaults.containsKey(name) || (merge && properties.containsKey(name));
     }
 
     /**
      * {@inheritDoc}
      */
     public boolean containsValue(final Object value) {
-        return values().contains(value);
+        final Iterator<Entry<String, Object>> iter = new MergedIterator();
+        while (iter.hasNext()) {
+            final Object v = iter.next().getValue();
+            if (value == null ? v == null : value.equals(v)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -204,43 +232,126 @@ public class CompositeValueMap implements ValueMap {
      * {@inheritDoc}
      */
     public Set<String> keySet() {
-        return buildAggregatedMap().keySet();
+        return new AbstractSet<String>() {
+
+            @Override
+            public Iterator<String> iterator() {
+                final Iterator<Entry<String, Object>> iter = new MergedIterator();
+                return new Iterator<String>() {
+
+                    @Override
+                    public boolean hasNext() {
+                        return iter.hasNext();
+                    }
+
+                    @Override
+                    public String next() {
+                        return iter.next().getKey();
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(final Object o) {
+                return o != null && containsKey(o);
+            }
+
+            @Override
+            public int size() {
+                return CompositeValueMap.this.size();
+            }
+        };
     }
 
     /**
      * {@inheritDoc}
      */
     public Collection<Object> values() {
-        return buildAggregatedMap().values();
+        return new AbstractCollection<Object>() {
+
+            @Override
+            public Iterator<Object> iterator() {
+                final Iterator<Entry<String, Object>> iter = new MergedIterator();
+                return new Iterator<Object>() {
+
+                    @Override
+                    public boolean hasNext() {
+                        return iter.hasNext();
+                    }
+
+                    @Override
+                    public Object next() {
+                        return iter.next().getValue();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return CompositeValueMap.this.size();
+            }
+        };
     }
 
     /**
      * {@inheritDoc}
      */
     public Set<Entry<String, Object>> entrySet() {
-        return buildAggregatedMap().entrySet();
+        return new AbstractSet<Entry<String, Object>>() {
+
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new MergedIterator();
+            }
+
+            @Override
+            public int size() {
+                return CompositeValueMap.this.size();
+            }
+        };
     }
 
     /**
-     * Build the aggregated map containing all values.
+     * Iterator over the merged entries. It first walks the properties which are
+     * part of the result and then the defaults not overridden by a property.
      */
-    private Map<String, Object> buildAggregatedMap() {
-        final Map<String, Object> entries = new HashMap<String, Object>();
+    private final class MergedIterator implements Iterator<Entry<String, Object>> {
+
+        private Iterator<Entry<String, Object>> current = properties.entrySet().iterator();
 
-        // Add properties in merge mode or if defaults exists
-        for (final Entry<String, Object> entry : properties.entrySet()) {
-            if (merge || defaults.containsKey(entry.getKey())) {
-                entries.put(entry.getKey(), entry.getValue());
+        private boolean inDefaults;
+
+        private Entry<String, Object> next;
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (current.hasNext()) {
+                    final Entry<String, Object> candidate = current.next();
+                    final String key = candidate.getKey();
+                    final boolean include =
+                            inDefaults ? !properties.containsKey(key) : merge || defaults.containsKey(key);
+                    if (include) {
+                        next = new AbstractMap.SimpleImmutableEntry<>(key, candidate.getValue());
+                    }
+                } else if (!inDefaults) {
+                    current = defaults.entrySet().iterator();
+                    inDefaults = true;
+                } else {
+                    return false;
+                }
             }
+            return true;
         }
 
-        // Add missing defaults
-        for (final Entry<String, Object> entry : defaults.entrySet()) {
-            if (!entries.containsKey(entry.getKey())) {
-                entries.put(entry.getKey(), entry.getValue());
+        @Override
+        public Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
             }
+            final Entry<String, Object> result = next;
+            next = null;
+            return result;
         }
-
-        return entries;
     }
 }
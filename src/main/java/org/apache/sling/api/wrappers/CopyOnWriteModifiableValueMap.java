@@ -0,0 +1,359 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.wrappers;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.sling.api.resource.ModifiableValueMap;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A {@link ModifiableValueMap} which never modifies the map it has been
+ * created with but copies it on the first write, and which keeps track
+ * of the properties that have been added, changed or removed since then.
+ * <p>
+ * Resource providers can use this class for the modifiable value maps of
+ * their resources and only persist the {@link #getChangedProperties() changed properties}
+ * and {@link #getRemovedPropertyNames() removed properties} on
+ * {@link org.apache.sling.spi.resource.provider.ResourceProvider#commit(org.apache.sling.spi.resource.provider.ResolveContext)}.
+ * The property name sets can also be used to create
+ * {@link org.apache.sling.api.resource.observation.ResourceChange} events.
+ * After a successful commit, {@link #clearChanges()} makes the current state
+ * the new base line.
+ * <p>
+ * As long as there are no writes, reads go straight to the original map.
+ * Changing a property back to its original value is not reported as a change.
+ * Instances of this class are not thread-safe.
+ *
+ * @since 2.12.0 (Sling API Bundle 3.0.3)
+ */
+public class CopyOnWriteModifiableValueMap extends AbstractMap<String, Object> implements ModifiableValueMap {
+
+    /**
+     * The state the changes are tracked against.
+     */
+    private Map<String, Object> base;
+
+    /**
+     * The current state, identical to {@link #base} until the first write.
+     */
+    private Map<String, Object> current;
+
+    /**
+     * The names of the properties written since the copy, lazily created.
+     */
+    private Set<String> dirty;
+
+    /**
+     * Creates a new value map on top of the given map. The given map is never modified.
+     * @param base The original properties
+     */
+    public CopyOnWriteModifiableValueMap(@NotNull final Map<String, Object> base) {
+        this.base = base;
+        this.current = base;
+    }
+
+    /**
+     * Returns whether this map differs from the original properties.
+     * @return {@code true} if properties have been added, changed or removed
+     */
+    public boolean hasChanges() {
+        if (this.dirty != null) {
+            for (final String key : this.dirty) {
+                if (isChanged(key)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the names of the properties which did not exist in the original map.
+     * @return An immutable set of property names, in the order they have been written
+     */
+    public @NotNull Set<String> getAddedPropertyNames() {
+        final Set<String> result = new LinkedHashSet<>();
+        if (this.dirty != null) {
+            for (final String key : this.dirty) {
+                if (!this.base.containsKey(key) && this.current.containsKey(key)) {
+                    result.add(key);
+                }
+            }
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * Returns the names of the properties which exist in the original map
+     * but have a different value now.
+     * @return An immutable set of property names, in the order they have been written
+     */
+    public @NotNull Set<String> getChangedPropertyNames() {
+        final Set<String> result = new LinkedHashSet<>();
+        if (this.dirty != null) {
+            for (final String key : this.dirty) {
+                if (this.base.containsKey(key)
+                        && this.current.containsKey(key)
+                        && !Objects.deepEquals(this.base.get(key), this.current.get(key))) {
+                    result.add(key);
+                }
+            }
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * Returns the names of the properties which exist in the original map
+     * but have been removed.
+     * @return An immutable set of property names, in the order they have been written
+     */
+    public @NotNull Set<String> getRemovedPropertyNames() {
+        final Set<String> result = new LinkedHashSet<>();
+        if (this.dirty != null) {
+            for (final String key : this.dirty) {
+                if (this.base.containsKey(key) && !this.current.containsKey(key)) {
+                    result.add(key);
+                }
+            }
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * Returns the added and changed properties with their current values.
+     * These are the properties a resource provider needs to write, in
+     * addition to removing the {@link #getRemovedPropertyNames() removed properties}.
+     * @return An immutable map of the added and changed properties
+     */
+    public @NotNull Map<String, Object> getChangedProperties() {
+        final Map<String, Object> result = new LinkedHashMap<>();
+        if (this.dirty != null) {
+            for (final String key : this.dirty) {
+                if (this.current.containsKey(key) && isChanged(key)) {
+                    result.put(key, this.current.get(key));
+                }
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Makes the current state the new original state, for example after
+     * the changes have been persisted. Afterwards {@link #hasChanges()}
+     * returns {@code false}.
+     */
+    public void clearChanges() {
+        this.base = this.current;
+        this.dirty = null;
+    }
+
+    private boolean isChanged(final String key) {
+        final boolean inBase = this.base.containsKey(key);
+        final boolean inCurrent = this.current.containsKey(key);
+        if (inBase != inCurrent) {
+            return true;
+        }
+        return inBase && !Objects.deepEquals(this.base.get(key), this.current.get(key));
+    }
+
+    /**
+     * Copies the original map on the first write and records the written key.
+     */
+    private void beforeWrite(final String key) {
+        if (this.current == this.base) {
+            this.current = new LinkedHashMap<>(this.base);
+        }
+        if (this.dirty == null) {
+            this.dirty = new LinkedHashSet<>();
+        }
+        this.dirty.add(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return this.current.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(final Object key) {
+        return this.current.containsKey(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsValue(final Object value) {
+        return this.current.containsValue(value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object get(final Object key) {
+        return this.current.get(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object put(final String key, final Object value) {
+        beforeWrite(key);
+        return this.current.put(key, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object remove(final Object key) {
+        if (!(key instanceof String) || !this.current.containsKey(key)) {
+            return null;
+        }
+        beforeWrite((String) key);
+        return this.current.remove(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void clear() {
+        if (this.current.isEmpty()) {
+            return;
+        }
+        if (this.current == this.base) {
+            this.current = new LinkedHashMap<>();
+        }
+        if (this.dirty == null) {
+            this.dirty = new LinkedHashSet<>();
+        }
+        this.dirty.addAll(this.current.keySet());
+        this.dirty.addAll(this.base.keySet());
+        this.current.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @NotNull Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                // iterate over a copy, so the iterator survives the copy-on-write
+                final Iterator<String> keys = new ArrayList<>(current.keySet()).iterator();
+                return new Iterator<Entry<String, Object>>() {
+
+                    private String last;
+
+                    @Override
+                    public boolean hasNext() {
+                        return keys.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        this.last = keys.next();
+                        return new TrackingEntry(this.last);
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (this.last == null) {
+                            throw new IllegalStateException();
+                        }
+                        CopyOnWriteModifiableValueMap.this.remove(this.last);
+                        this.last = null;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return current.size();
+            }
+        };
+    }
+
+    /**
+     * Entry reading from and writing to the current state.
+     */
+    private final class TrackingEntry implements Entry<String, Object> {
+
+        private final String key;
+
+        TrackingEntry(final String key) {
+            this.key = key;
+        }
+
+        @Override
+        public String getKey() {
+            return this.key;
+        }
+
+        @Override
+        public Object getValue() {
+            return current.get(this.key);
+        }
+
+        @Override
+        public Object setValue(final Object value) {
+            return put(this.key, value);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Entry)) {
+                return false;
+            }
+            final Entry<?, ?> other = (Entry<?, ?>) obj;
+            return Objects.equals(this.key, other.getKey()) && Objects.equals(getValue(), other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(this.key) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return this.key + "=" + getValue();
+        }
+    }
+}
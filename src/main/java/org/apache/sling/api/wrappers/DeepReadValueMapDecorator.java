@@ -18,6 +18,10 @@
  */
 package org.apache.sling.api.wrappers;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.api.resource.ValueMap;
@@ -26,6 +30,12 @@ import org.jetbrains.annotations.NotNull;
 /**
  * A value map wrapper which implements deep reading of properties
  * based on the resource tree.
+ * <p>
+ * The value maps of the child resources are cached by this decorator (up to
+ * {@value #MAX_CACHED_VALUE_MAPS} of them), so reading several properties of
+ * the same child resource only resolves that child once. As a consequence,
+ * child resources created or removed after they have been read through this
+ * decorator are not reflected by it.
  * @since 2.5 (Sling API Bundle 2.7.0)
  */
 public class DeepReadValueMapDecorator extends ValueMapDecorator {
@@ -36,6 +46,17 @@ public class DeepReadValueMapDecorator extends ValueMapDecorator {
 
     private final ValueMap base;
 
+    /**
+     * Maximum number of child value maps cached per decorator.
+     */
+    static final int MAX_CACHED_VALUE_MAPS = 32;
+
+    /**
+     * Child value maps by relative path, in access order. Lazily created
+     * as most value maps are never read deeply.
+     */
+    private Map<String, ValueMap> valueMapCache;
+
     public DeepReadValueMapDecorator(final Resource resource, final ValueMap base) {
         super(base);
         this.pathPrefix = resource.getPath() + "/";
@@ -48,7 +69,36 @@ public class DeepReadValueMapDecorator extends ValueMapDecorator {
         if (pos == -1) {
             return this.base;
         }
-        final Resource rsrc = this.resolver.getResource(pathPrefix + name.substring(0, pos));
+        return this.getChildValueMap(name.substring(0, pos));
+    }
+
+    private ValueMap getChildValueMap(final String relPath) {
+        synchronized (this) {
+            if (this.valueMapCache == null) {
+                this.valueMapCache = new LinkedHashMap<String, ValueMap>(16, 0.75f, true) {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    protected boolean removeEldestEntry(final Map.Entry<String, ValueMap> eldest) {
+                        return size() > MAX_CACHED_VALUE_MAPS;
+                    }
+                };
+            } else {
+                final ValueMap vm = this.valueMapCache.get(relPath);
+                if (vm != null) {
+                    return vm;
+                }
+            }
+        }
+        final ValueMap vm = this.resolveValueMap(relPath);
+        synchronized (this) {
+            this.valueMapCache.put(relPath, vm);
+        }
+        return vm;
+    }
+
+    private ValueMap resolveValueMap(final String relPath) {
+        final Resource rsrc = this.resolver.getResource(pathPrefix + relPath);
         if (rsrc != null) {
             final ValueMap vm = rsrc.adaptTo(ValueMap.class);
             if (vm != null) {
@@ -83,6 +133,70 @@ public class DeepReadValueMapDecorator extends ValueMapDecorator {
         return this.getValueMap(name).get(this.getPropertyName(name), defaultValue);
     }
 
+    /**
+     * @see org.apache.sling.api.resource.ValueMap#getInt(java.lang.String, int)
+     */
+    @Override
+    public int getInt(@NotNull final String name, final int defaultValue) {
+        return this.getValueMap(name).getInt(this.getPropertyName(name), defaultValue);
+    }
+
+    /**
+     * @see org.apache.sling.api.resource.ValueMap#getLong(java.lang.String, long)
+     */
+    @Override
+    public long getLong(@NotNull final String name, final long defaultValue) {
+        return this.getValueMap(name).getLong(this.getPropertyName(name), defaultValue);
+    }
+
+    /**
+     * @see org.apache.sling.api.resource.ValueMap#getDouble(java.lang.String, double)
+     */
+    @Override
+    public double getDouble(@NotNull final String name, final double defaultValue) {
+        return this.getValueMap(name).getDouble(this.getPropertyName(name), defaultValue);
+    }
+
+    /**
+     * @see org.apache.sling.api.resource.ValueMap#getBoolean(java.lang.String, boolean)
+     */
+    @Override
+    public boolean getBoolean(@NotNull final String name, final boolean defaultValue) {
+        return this.getValueMap(name).getBoolean(this.getPropertyName(name), defaultValue);
+    }
+
+    /**
+     * Read several, possibly deep, properties at once. The names are grouped
+     * by their relative parent path, so every child resource is resolved at
+     * most once, regardless of the number of its properties being read.
+     *
+     * @param names The property names, optionally containing a relative path
+     * @return A map of the given names to their values, in the iteration order
+     *         of the given names. Names without a value are not contained.
+     * @since 2.12.0 (Sling API Bundle 3.0.3)
+     */
+    public @NotNull Map<String, Object> getAll(@NotNull final Collection<String> names) {
+        final Map<String, Object> result = new LinkedHashMap<>();
+        Map<String, ValueMap> children = null;
+        for (final String name : names) {
+            final int pos = name.lastIndexOf("/");
+            final Object value;
+            if (pos == -1) {
+                value = this.base.get(name);
+            } else {
+                if (children == null) {
+                    children = new LinkedHashMap<>();
+                }
+                final ValueMap vm = children.computeIfAbsent(name.substring(0, pos), this::getChildValueMap);
+                value = vm.get(name.substring(pos + 1));
+            }
+            if (value != null) {
+                result.put(name, value);
+            }
+        }
+        return result;
+    }
+
     /**
      * @see org.apache.sling.api.wrappers.ValueMapDecorator#containsKey(java.lang.Object)
      */
@@ -18,6 +18,8 @@
  */
 package org.apache.sling.api.wrappers;
 
+import java.util.List;
+
 import org.apache.sling.api.request.RequestPathInfo;
 import org.apache.sling.api.resource.Resource;
 import org.jetbrains.annotations.NotNull;
@@ -61,6 +63,14 @@ public class RequestPathInfoWrapper implements RequestPathInfo {
         return delegate.getSelectors();
     }
 
+    public @NotNull List<String> getSelectorList() {
+        return delegate.getSelectorList();
+    }
+
+    public boolean hasSelector(@NotNull String selector) {
+        return delegate.hasSelector(selector);
+    }
+
     public @Nullable String getSuffix() {
         return delegate.getSuffix();
     }
@@ -312,6 +312,42 @@ public class ResourceResolverWrapper implements ResourceResolver {
         return ResourceResolverResourceWrapper.wrap(this, wrapped.create(parent, name, properties));
     }
 
+    /**
+     * Wraps and returns the {@code Resource} obtained by calling {@code getOrCreateResource} on the wrapped resource
+     * resolver.
+     *
+     * @param path The absolute path of the resource
+     * @param properties The optional properties of the resource, if it is created
+     * @param intermediateProperties The optional properties of the ancestors which are created
+     * @return a wrapped resource obtained through the wrapped resource resolver
+     * @throws PersistenceException If the operation fails.
+     */
+    @NotNull
+    @Override
+    public Resource getOrCreateResource(
+            @NotNull String path,
+            @Nullable Map<String, Object> properties,
+            @Nullable Map<String, Object> intermediateProperties)
+            throws PersistenceException {
+        return ResourceResolverResourceWrapper.wrap(
+                this, wrapped.getOrCreateResource(path, properties, intermediateProperties));
+    }
+
+    /**
+     * Returns the name obtained by calling {@code createUniqueChildName} on the wrapped resource resolver, so that
+     * the wrapped resource resolver and its resource providers can allocate the name.
+     *
+     * @param parent The parent resource
+     * @param name The requested name of the child resource - this is a plain name, not a path!
+     * @return a name for which no child exists, obtained through the wrapped resource resolver
+     * @throws PersistenceException If no unique name can be found
+     */
+    @NotNull
+    @Override
+    public String createUniqueChildName(@NotNull Resource parent, @NotNull String name) throws PersistenceException {
+        return wrapped.createUniqueChildName(parent, name);
+    }
+
     @Override
     public boolean orderBefore(@NotNull Resource parent, @NotNull String name, @Nullable String followingSiblingName)
             throws UnsupportedOperationException, PersistenceException, IllegalArgumentException {
@@ -87,6 +87,54 @@ public class ValueMapDecorator implements ValueMap {
         return value;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getInt(@NotNull String name, int defaultValue) {
+        if (base instanceof ValueMap) {
+            // shortcut if decorated map is ValueMap
+            return ((ValueMap) base).getInt(name, defaultValue);
+        }
+        return ValueMap.super.getInt(name, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLong(@NotNull String name, long defaultValue) {
+        if (base instanceof ValueMap) {
+            // shortcut if decorated map is ValueMap
+            return ((ValueMap) base).getLong(name, defaultValue);
+        }
+        return ValueMap.super.getLong(name, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getDouble(@NotNull String name, double defaultValue) {
+        if (base instanceof ValueMap) {
+            // shortcut if decorated map is ValueMap
+            return ((ValueMap) base).getDouble(name, defaultValue);
+        }
+        return ValueMap.super.getDouble(name, defaultValue);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean getBoolean(@NotNull String name, boolean defaultValue) {
+        if (base instanceof ValueMap) {
+            // shortcut if decorated map is ValueMap
+            return ((ValueMap) base).getBoolean(name, defaultValue);
+        }
+        return ValueMap.super.getBoolean(name, defaultValue);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -114,6 +114,42 @@ public class MergingValueMap implements ValueMap {
                 .orElse(null);
     }
 
+    @Override
+    public int getInt(@NotNull String name, int defaultValue) {
+        final ValueMap vm = findValueMap(name);
+        return vm != null ? vm.getInt(name, defaultValue) : defaultValue;
+    }
+
+    @Override
+    public long getLong(@NotNull String name, long defaultValue) {
+        final ValueMap vm = findValueMap(name);
+        return vm != null ? vm.getLong(name, defaultValue) : defaultValue;
+    }
+
+    @Override
+    public double getDouble(@NotNull String name, double defaultValue) {
+        final ValueMap vm = findValueMap(name);
+        return vm != null ? vm.getDouble(name, defaultValue) : defaultValue;
+    }
+
+    @Override
+    public boolean getBoolean(@NotNull String name, boolean defaultValue) {
+        final ValueMap vm = findValueMap(name);
+        return vm != null ? vm.getBoolean(name, defaultValue) : defaultValue;
+    }
+
+    /**
+     * Returns the first value map having a mapping for the given key.
+     */
+    private ValueMap findValueMap(final Object key) {
+        for (final ValueMap vm : valueMaps) {
+            if (vm.containsKey(key)) { // SLING-9774
+                return vm;
+            }
+        }
+        return null;
+    }
+
     @NotNull
     @Override
     public Set<String> keySet() {
@@ -563,6 +563,65 @@ public abstract class ResourceProvider<T> {
         throw new UnsupportedOperationException("orderBefore is not supported.");
     }
 
+    /**
+     * Get the resource at the given path, creating it and all its missing
+     * ancestors if it does not exist yet.
+     * This change is kept in the transient space of this provider
+     * until {@link #commit(ResolveContext)} is called.
+     * <p>
+     * Providers which can create a chain of resources in a single operation,
+     * for example as an upsert, should implement this method.
+     * <p>
+     * This method is only called if the provider supports this and indicates
+     * it by setting the {@link #PROPERTY_MODIFIABLE} to the value {@code true}.
+     *
+     * @param ctx The {@link ResolveContext}.
+     * @param path The absolute path of the resource
+     * @param properties The optional properties of the resource, if it is created
+     * @param intermediateProperties The optional properties of the ancestors which are created
+     * @return The existing or created resource or {@code null} if the provider does not
+     *         support this, in which case the resource resolver creates the missing
+     *         resources one by one.
+     * @throws PersistenceException If anything fails
+     * @since 1.5.0 (Sling API Bundle 3.0.3)
+     * @see org.apache.sling.api.resource.ResourceResolver#getOrCreateResource(String, Map, Map)
+     */
+    public @Nullable Resource getOrCreateResource(
+            final @NotNull ResolveContext<T> ctx,
+            final @NotNull String path,
+            final @Nullable Map<String, Object> properties,
+            final @Nullable Map<String, Object> intermediateProperties)
+            throws PersistenceException {
+        return null;
+    }
+
+    /**
+     * Create a unique name for a child of the given parent resource, based on
+     * the given name. If there is no child with the given name, the name should
+     * be returned as is, otherwise a number should be appended to it.
+     * <p>
+     * Providers which can allocate such a name more efficiently than by probing
+     * for existing children, for example by using a sequence or by seeking in
+     * their sorted children, should implement this method.
+     * <p>
+     * This method is only called if the provider supports this and indicates
+     * it by setting the {@link #PROPERTY_MODIFIABLE} to the value {@code true}.
+     *
+     * @param ctx The {@link ResolveContext}.
+     * @param parent The parent resource
+     * @param name The requested name of the child resource
+     * @return A name for which no child exists or {@code null} if the provider does not
+     *         support this, in which case the resource resolver probes for existing children.
+     * @throws PersistenceException If no unique name can be found
+     * @since 1.5.0 (Sling API Bundle 3.0.3)
+     * @see org.apache.sling.api.resource.ResourceResolver#createUniqueChildName(Resource, String)
+     */
+    public @Nullable String createUniqueChildName(
+            final @NotNull ResolveContext<T> ctx, final @NotNull Resource parent, final @NotNull String name)
+            throws PersistenceException {
+        return null;
+    }
+
     /**
      * Delete the resource at the given path.
      * This change is kept in the transient space of this provider
@@ -598,6 +657,10 @@ public abstract class ResourceProvider<T> {
      * <p>
      * This method is only called if the provider supports this and indicates
      * it by setting the {@link #PROPERTY_MODIFIABLE} to the value {@code true}.
+     * <p>
+     * Providers handing out a {@link org.apache.sling.api.wrappers.CopyOnWriteModifiableValueMap}
+     * for their resources can use it to only persist the properties which
+     * actually changed.
      *
      * @param ctx The {@link ResolveContext}.
      * @throws PersistenceException If anything fails
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.adapter;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptationMetricsTest {
+
+    @Test
+    public void testRecord() {
+        final AdaptationMetrics metrics = new AdaptationMetrics();
+        assertNull(metrics.getStatistics(String.class, Integer.class));
+        metrics.record(String.class, Integer.class, 500, false, true);
+        metrics.record(String.class, Integer.class, 5000, true, false);
+        metrics.record(String.class, Long.class, 1_000_000, false, false);
+
+        final AdaptationMetrics.Statistics stats = metrics.getStatistics(String.class, Integer.class);
+        assertEquals(2, stats.getCount());
+        assertEquals(1, stats.getCacheHits());
+        assertEquals(1, stats.getNullResults());
+        assertEquals(5500, stats.getTotalNanos());
+        assertEquals(2, stats.getDurations().getCount());
+        assertEquals(5000, stats.getDurations().getMaxNanos());
+
+        final List<AdaptationMetrics.Statistics> hot = metrics.getHotPairs(1);
+        assertEquals(1, hot.size());
+        assertEquals(Long.class.getName(), hot.get(0).getAdapterTypeName());
+        assertEquals(String.class.getName(), hot.get(0).getAdaptableClassName());
+        assertEquals(2, metrics.getHotPairs(10).size());
+
+        metrics.reset();
+        assertTrue(metrics.getHotPairs(10).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeLimit() {
+        new AdaptationMetrics().getHotPairs(-1);
+    }
+}
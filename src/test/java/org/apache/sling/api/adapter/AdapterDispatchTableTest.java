@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.adapter;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AdapterDispatchTableTest {
+
+    private AdapterDispatchTable table;
+
+    private AdapterFactory listFactory;
+
+    private AdapterFactory serializableFactory;
+
+    @Before
+    public void setUp() {
+        table = new AdapterDispatchTable();
+        listFactory = mock(AdapterFactory.class);
+        serializableFactory = mock(AdapterFactory.class);
+        when(listFactory.getAdapter(any(), eq(String.class))).thenReturn(null);
+        when(serializableFactory.getAdapter(any(), eq(String.class))).thenReturn("serializable");
+        table.addAdapterFactory(
+                serializableFactory, new String[] {Serializable.class.getName()}, new String[] {"java.lang.String"}, 0);
+        table.addAdapterFactory(
+                listFactory,
+                new String[] {List.class.getName()},
+                new String[] {"java.lang.String", "java.lang.Integer"},
+                0);
+    }
+
+    @Test
+    public void testHierarchy() {
+        // ArrayList implements List (via its class) before Serializable
+        assertEquals(
+                Arrays.asList(listFactory, serializableFactory),
+                table.getAdapterFactories(ArrayList.class, String.class));
+        assertEquals(Collections.singletonList(listFactory), table.getAdapterFactories(ArrayList.class, Integer.class));
+        assertEquals(
+                Collections.singletonList(serializableFactory), table.getAdapterFactories(String.class, String.class));
+        assertEquals(Collections.emptyList(), table.getAdapterFactories(Object.class, String.class));
+        assertEquals("serializable", table.getAdapter(new ArrayList<>(), String.class));
+        assertNull(table.getAdapter(new Object(), String.class));
+    }
+
+    @Test
+    public void testLookupsAreCached() {
+        final Object first = table.getAdapterFactories(ArrayList.class, Long.class);
+        assertSame(first, table.getAdapterFactories(ArrayList.class, Long.class));
+        assertSame(
+                table.getAdapterFactories(ArrayList.class, String.class),
+                table.getAdapterFactories(ArrayList.class, String.class));
+    }
+
+    @Test
+    public void testChangesInvalidateCache() {
+        assertEquals(2, table.getAdapterFactories(ArrayList.class, String.class).size());
+        table.removeAdapterFactory(listFactory);
+        assertEquals(
+                Collections.singletonList(serializableFactory),
+                table.getAdapterFactories(ArrayList.class, String.class));
+
+        final AdapterFactory ranked = mock(AdapterFactory.class);
+        table.addAdapterFactory(
+                ranked, new String[] {Serializable.class.getName()}, new String[] {"java.lang.String"}, 10);
+        assertEquals(
+                Arrays.asList(ranked, serializableFactory), table.getAdapterFactories(ArrayList.class, String.class));
+        assertEquals(Collections.emptyList(), table.getAdapterFactories(ArrayList.class, Integer.class));
+    }
+}
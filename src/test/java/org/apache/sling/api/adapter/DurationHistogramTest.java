@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.adapter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DurationHistogramTest {
+
+    @Test
+    public void testBuckets() {
+        for (long nanos : new long[] {0, 1, 7, 8, 9, 15, 16, 17, 1000, 123_456_789L, 1L << 40, (1L << 41) - 1}) {
+            final int bucket = DurationHistogram.getBucket(nanos);
+            assertTrue(nanos + " below upper bound", nanos < DurationHistogram.getBucketUpperBoundNanos(bucket));
+            if (bucket > 0) {
+                assertTrue(
+                        nanos + " above lower bound", nanos >= DurationHistogram.getBucketUpperBoundNanos(bucket - 1));
+            }
+        }
+        // precision of 12.5 percent
+        final long upper = DurationHistogram.getBucketUpperBoundNanos(DurationHistogram.getBucket(1_000_000));
+        assertTrue(upper <= 1_125_000);
+        assertEquals(
+                Long.MAX_VALUE,
+                DurationHistogram.getBucketUpperBoundNanos(DurationHistogram.getBucket(Long.MAX_VALUE)));
+        assertEquals(0, DurationHistogram.getBucket(-5));
+    }
+
+    @Test
+    public void testEmpty() {
+        final DurationHistogram histogram = new DurationHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentileNanos(50));
+        assertEquals(0.0, histogram.getMeanNanos(), 0.0);
+    }
+
+    @Test
+    public void testNegativeDuration() {
+        final DurationHistogram histogram = new DurationHistogram();
+        histogram.record(-10);
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getTotalNanos());
+    }
+}
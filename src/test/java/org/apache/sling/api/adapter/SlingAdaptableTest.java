@@ -18,13 +18,17 @@
  */
 package org.apache.sling.api.adapter;
 
+import java.util.concurrent.CountDownLatch;
+
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
 
 public class SlingAdaptableTest {
@@ -62,6 +66,91 @@ public class SlingAdaptableTest {
         assertNotNull(sut.adaptTo(TestAdapterType.class));
     }
 
+    @Test
+    public void testCacheGrowsBeyondInlineEntries() {
+        SlingAdaptable.setAdapterManager(adapterMgr);
+        final Class<?>[] types = {
+            Integer.class, Long.class, Short.class, Byte.class, Double.class, Float.class, Character.class
+        };
+        assertTrue(types.length > SlingAdaptable.MAX_INLINE_ADAPTERS);
+        for (final Class<?> type : types) {
+            when(adapterMgr.getAdapter(any(), eq(type))).thenAnswer(invocation -> type.getName());
+        }
+        for (int round = 0; round < 2; round++) {
+            for (final Class<?> type : types) {
+                assertEquals(type.getName(), sut.adaptTo(type));
+            }
+        }
+        for (final Class<?> type : types) {
+            verify(adapterMgr, times(1)).getAdapter(any(), eq(type));
+        }
+    }
+
+    @Test
+    public void testNullAdapterCache() {
+        SlingAdaptable.setAdapterManager(adapterMgr);
+        final SlingAdaptable adaptable = new SlingAdaptable() {
+            @Override
+            protected boolean isNullAdapterCacheable(final Class<?> type) {
+                return type == TestAdapterType2.class;
+            }
+        };
+        assertNull(adaptable.adaptTo(TestAdapterType2.class));
+        assertNull(adaptable.adaptTo(TestAdapterType2.class));
+        verify(adapterMgr, times(1)).getAdapter(any(), eq(TestAdapterType2.class));
+
+        assertNull(adaptable.adaptTo(TestAdapterType.class));
+        assertNull(adaptable.adaptTo(TestAdapterType.class));
+        verify(adapterMgr, times(2)).getAdapter(any(), eq(TestAdapterType.class));
+    }
+
+    @Test(timeout = 10000)
+    public void testSlowAdapterFactoryDoesNotBlock() throws Exception {
+        SlingAdaptable.setAdapterManager(adapterMgr);
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        when(adapterMgr.getAdapter(any(), eq(TestAdapterType.class))).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await();
+            return new TestAdapterType();
+        });
+        when(adapterMgr.getAdapter(any(), eq(TestAdapterType2.class))).thenReturn(new TestAdapterType2());
+
+        final Thread slow = new Thread(() -> sut.adaptTo(TestAdapterType.class));
+        slow.start();
+        entered.await();
+        // the slow factory must not block adapting to another type
+        assertNotNull(sut.adaptTo(TestAdapterType2.class));
+        release.countDown();
+        slow.join();
+        assertNotNull(sut.adaptTo(TestAdapterType.class));
+        verify(adapterMgr, times(1)).getAdapter(any(), eq(TestAdapterType.class));
+    }
+
+    @Test
+    public void testAdaptationMetrics() {
+        SlingAdaptable.setAdapterManager(adapterMgr);
+        final AdaptationMetrics metrics = new AdaptationMetrics();
+        SlingAdaptable.setAdaptationMetrics(metrics);
+        try {
+            when(adapterMgr.getAdapter(any(), eq(TestAdapterType.class))).thenReturn(new TestAdapterType());
+            sut.adaptTo(TestAdapterType.class);
+            sut.adaptTo(TestAdapterType.class);
+            sut.adaptTo(TestAdapterType2.class);
+        } finally {
+            SlingAdaptable.setAdaptationMetrics(null);
+        }
+        sut.adaptTo(TestAdapterType.class);
+
+        final AdaptationMetrics.Statistics stats = metrics.getStatistics(sut.getClass(), TestAdapterType.class);
+        assertEquals(2, stats.getCount());
+        assertEquals(1, stats.getCacheHits());
+        assertEquals(0, stats.getNullResults());
+        assertEquals(0.5, stats.getCacheHitRatio(), 0.001);
+        assertEquals(
+                1, metrics.getStatistics(sut.getClass(), TestAdapterType2.class).getNullResults());
+    }
+
     // SLING-10371
     @Test()
     public void testNestedAdaptTo() {
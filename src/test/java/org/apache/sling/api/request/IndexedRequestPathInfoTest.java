@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.request;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class IndexedRequestPathInfoTest {
+
+    private static void assertDecomposition(
+            final String path,
+            final String resourcePath,
+            final String selectorString,
+            final String extension,
+            final String suffix) {
+        final RequestPathInfo info = IndexedRequestPathInfo.parse(path);
+        assertEquals(path, resourcePath, info.getResourcePath());
+        assertEquals(path, selectorString, info.getSelectorString());
+        assertArrayEquals(
+                path, selectorString == null ? new String[0] : selectorString.split("\\."), info.getSelectors());
+        assertEquals(path, extension, info.getExtension());
+        assertEquals(path, suffix, info.getSuffix());
+    }
+
+    @Test
+    public void testDecomposition() {
+        assertDecomposition("/a/b", "/a/b", null, null, null);
+        assertDecomposition("/a/b.html", "/a/b", null, "html", null);
+        assertDecomposition("/a/b.s1.html", "/a/b", "s1", "html", null);
+        assertDecomposition("/a/b.s1.s2.html", "/a/b", "s1.s2", "html", null);
+        assertDecomposition("/a/b.html/c/d", "/a/b", null, "html", "/c/d");
+        assertDecomposition("/a/b.s1.s2.html/c/d.s.txt", "/a/b", "s1.s2", "html", "/c/d.s.txt");
+        assertDecomposition("/a/b.", "/a/b", null, null, null);
+        assertDecomposition("/a/b.html./c", "/a/b", null, "html", "/c");
+    }
+
+    @Test
+    public void testDotSegments() {
+        assertDecomposition("/a/./b.html", "/a/./b", null, "html", null);
+        assertDecomposition("/a/../b.s.html", "/a/../b", "s", "html", null);
+    }
+
+    @Test
+    public void testKnownResourcePath() {
+        final IndexedRequestPathInfo info = IndexedRequestPathInfo.parse("/a/b/c/d.s.txt", 4, null);
+        assertEquals("/a/b", info.getResourcePath());
+        assertNull(info.getSelectorString());
+        assertNull(info.getExtension());
+        assertEquals("/c/d.s.txt", info.getSuffix());
+        assertEquals("/a/b/c/d.s.txt", info.getPath());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidResourcePathLength() {
+        IndexedRequestPathInfo.parse("/a/b.html", 3, null);
+    }
+
+    @Test
+    public void testSelectorList() {
+        final IndexedRequestPathInfo info = IndexedRequestPathInfo.parse("/a/b.s1.s2.html");
+        assertEquals(Arrays.asList("s1", "s2"), info.getSelectorList());
+        assertSame(info.getSelectorList(), info.getSelectorList());
+        assertNotSame(info.getSelectors(), info.getSelectors());
+        assertEquals(
+                Collections.emptyList(),
+                IndexedRequestPathInfo.parse("/a/b.html").getSelectorList());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSelectorListIsUnmodifiable() {
+        IndexedRequestPathInfo.parse("/a/b.s1.html").getSelectorList().add("s2");
+    }
+
+    @Test
+    public void testHasSelector() {
+        final IndexedRequestPathInfo info = IndexedRequestPathInfo.parse("/a/b.s1.s22.html/s3");
+        assertTrue(info.hasSelector("s1"));
+        assertTrue(info.hasSelector("s22"));
+        assertFalse(info.hasSelector("s2"));
+        assertFalse(info.hasSelector("html"));
+        assertFalse(info.hasSelector("s3"));
+        assertFalse(info.hasSelector("b"));
+    }
+
+    @Test
+    public void testSuffixResource() {
+        final ResourceResolver resolver = Mockito.mock(ResourceResolver.class);
+        final Resource resource = Mockito.mock(Resource.class);
+        Mockito.when(resolver.getResource("/c/d")).thenReturn(resource);
+        assertSame(
+                resource,
+                IndexedRequestPathInfo.parse("/a/b.html/c/d", 4, resolver).getSuffixResource());
+        assertNull(IndexedRequestPathInfo.parse("/a/b.html", 4, resolver).getSuffixResource());
+        assertNull(IndexedRequestPathInfo.parse("/a/b.html/c/d").getSuffixResource());
+    }
+}
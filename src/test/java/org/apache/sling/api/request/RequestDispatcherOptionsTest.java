@@ -18,13 +18,19 @@
  */
 package org.apache.sling.api.request;
 
+import java.util.Collections;
+import java.util.Map;
+
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class RequestDispatcherOptionsTest {
 
@@ -122,4 +128,77 @@ public class RequestDispatcherOptionsTest {
         assertEquals("false", options.get(RequestDispatcherOptions.OPT_PROTECT_HEADERS_ON_INCLUDE));
         assertFalse(options.isProtectHeadersOnInclude());
     }
+
+    @Test
+    public void testEmptyEntries() {
+        final RequestDispatcherOptions result =
+                new RequestDispatcherOptions(",,=x,addSelectors=,replaceSuffix=/s,,noValue, replaceExtension = json");
+        assertEquals(2, result.size());
+        assertEquals("/s", result.getReplaceSuffix());
+        assertEquals("json", result.getReplaceExtension());
+    }
+
+    @Test
+    public void testOf() {
+        final RequestDispatcherOptions result =
+                RequestDispatcherOptions.of("forceResourceType=a/b, addSelectors=s1.s2, protectHeadersOnInclude=true");
+        assertSame(
+                result,
+                RequestDispatcherOptions.of("forceResourceType=a/b, addSelectors=s1.s2, protectHeadersOnInclude=true"));
+        assertEquals(
+                new RequestDispatcherOptions("forceResourceType=a/b, addSelectors=s1.s2, protectHeadersOnInclude=true"),
+                result);
+        assertEquals("a/b", result.getForceResourceType());
+        assertEquals("s1.s2", result.getAddSelectors());
+        assertNull(result.getReplaceSelectors());
+        assertNull(result.getReplaceSuffix());
+        assertNull(result.getReplaceExtension());
+        assertTrue(result.isProtectHeadersOnInclude());
+
+        assertEquals(
+                "components/widget",
+                RequestDispatcherOptions.of(" components/widget ").getForceResourceType());
+        assertTrue(RequestDispatcherOptions.of(null).isEmpty());
+        assertSame(RequestDispatcherOptions.of(null), RequestDispatcherOptions.of(""));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testOfIsImmutable() {
+        RequestDispatcherOptions.of("replaceSelectors=x").setReplaceSelectors("y");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testOfViewsAreImmutable() {
+        RequestDispatcherOptions.of("replaceSelectors=x").entrySet().clear();
+    }
+
+    @Test
+    public void testOfEntriesAreImmutable() {
+        final RequestDispatcherOptions shared = RequestDispatcherOptions.of("replaceSelectors=a,addSelectors=b");
+        for (final Map.Entry<String, String> entry : shared.entrySet()) {
+            try {
+                entry.setValue("X");
+                fail("Entries must not be modifiable");
+            } catch (UnsupportedOperationException expected) {
+            }
+        }
+        assertEquals("a", shared.get(RequestDispatcherOptions.OPT_REPLACE_SELECTORS));
+        assertEquals("b", shared.get(RequestDispatcherOptions.OPT_ADD_SELECTORS));
+        assertEquals(2, shared.entrySet().size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testOfMapMethodsAreImmutable() {
+        RequestDispatcherOptions.of("replaceSelectors=x").putAll(Collections.singletonMap("a", "b"));
+    }
+
+    @Test
+    public void testOfClone() {
+        final RequestDispatcherOptions shared = RequestDispatcherOptions.of("replaceSelectors=x");
+        final RequestDispatcherOptions copy = (RequestDispatcherOptions) shared.clone();
+        assertNotSame(shared, copy);
+        copy.setReplaceSelectors("y");
+        assertEquals("y", copy.getReplaceSelectors());
+        assertEquals("x", shared.getReplaceSelectors());
+    }
 }
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.request;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sling.api.adapter.DurationHistogram;
+import org.apache.sling.api.request.builder.Builders;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RequestTimerStatisticsTest {
+
+    @Test
+    public void testPercentiles() {
+        final RequestTimerStatistics statistics = new RequestTimerStatistics();
+        for (int i = 1; i <= 1000; i++) {
+            statistics.record("script", i * 1000L);
+        }
+        final DurationHistogram histogram = statistics.getHistogram("script");
+        assertNotNull(histogram);
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000L, histogram.getMaxNanos());
+        assertEquals(500_500.0, histogram.getMeanNanos(), 0.001);
+        assertWithin(500_000, histogram.getPercentileNanos(50));
+        assertWithin(990_000, histogram.getPercentileNanos(99));
+        assertEquals(1_000_000L, histogram.getPercentileNanos(100));
+        assertWithin(1000, histogram.getPercentileNanos(0));
+        assertNull(statistics.getHistogram("other"));
+    }
+
+    private static void assertWithin(final long expected, final long actual) {
+        assertTrue(actual + " >= " + expected, actual >= expected);
+        assertTrue(actual + " within 12.5% of " + expected, actual <= expected * 1.125);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPercentile() {
+        final RequestTimerStatistics statistics = new RequestTimerStatistics();
+        statistics.record("a", 1);
+        statistics.getHistogram("a").getPercentileNanos(101);
+    }
+
+    @Test
+    public void testRecordTracker() {
+        final RequestTimerStatistics statistics = new RequestTimerStatistics();
+        for (int i = 0; i < 3; i++) {
+            final RequestProgressTracker tracker = Builders.newRequestProgressTracker();
+            tracker.startTimer("include");
+            tracker.logTimer("include");
+            tracker.done();
+            statistics.record(tracker);
+        }
+        assertEquals(3, statistics.getHistogram("include").getCount());
+        assertEquals(3, statistics.getHistogram("Request Processing").getCount());
+        final List<Map.Entry<String, DurationHistogram>> slowest = statistics.getSlowestTimers(1);
+        assertEquals(1, slowest.size());
+        assertEquals(
+                RequestTimerStatistics.REQUEST_PROCESSING_TIMER, slowest.get(0).getKey());
+        assertEquals(0, statistics.getTrackersWithoutTimers());
+    }
+
+    @Test
+    public void testRecordTrackerWithoutTimers() {
+        final RequestTimerStatistics statistics = new RequestTimerStatistics();
+        final RequestProgressTracker tracker = Mockito.mock(RequestProgressTracker.class);
+        Mockito.doCallRealMethod().when(tracker).forEachTimer(Mockito.any());
+        Mockito.when(tracker.getDuration()).thenReturn(5000L);
+        statistics.record(tracker);
+        assertEquals(
+                5000L,
+                statistics
+                        .getHistogram(RequestTimerStatistics.REQUEST_PROCESSING_TIMER)
+                        .getMaxNanos());
+        assertEquals(1, statistics.getTrackersWithoutTimers());
+
+        // an unknown duration is not recorded
+        Mockito.when(tracker.getDuration()).thenReturn(0L);
+        statistics.record(tracker);
+        assertEquals(
+                1,
+                statistics
+                        .getHistogram(RequestTimerStatistics.REQUEST_PROCESSING_TIMER)
+                        .getCount());
+        assertEquals(2, statistics.getTrackersWithoutTimers());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeLimit() {
+        new RequestTimerStatistics().getSlowestTimers(-1);
+    }
+
+    @Test
+    public void testMaxTimers() {
+        final RequestTimerStatistics statistics = new RequestTimerStatistics(2);
+        statistics.record("a", 1);
+        statistics.record("b", 1);
+        statistics.record("c", 1);
+        statistics.record("a", 1);
+        assertNull(statistics.getHistogram("c"));
+        assertEquals(2, statistics.getHistogram("a").getCount());
+        assertEquals(1, statistics.getDroppedTimings());
+        statistics.reset();
+        assertNull(statistics.getHistogram("a"));
+        assertEquals(0, statistics.getDroppedTimings());
+    }
+
+    @Test
+    public void testConcurrentRecording() throws InterruptedException {
+        final RequestTimerStatistics statistics = new RequestTimerStatistics();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    statistics.record("timer", i);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(40_000, statistics.getHistogram("timer").getCount());
+    }
+}
@@ -20,6 +20,12 @@ package org.apache.sling.api.request;
 
 import javax.servlet.http.HttpServletResponse;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import junit.framework.TestCase;
 import org.apache.sling.api.SlingJakartaHttpServletRequest;
 import org.apache.sling.api.resource.Resource;
@@ -89,6 +95,128 @@ public class RequestUtilTest extends TestCase {
         assertNull(RequestUtil.parserAcceptHeader("compress;q=0.5, gzip;q=1.0").get("compres"));
     }
 
+    public void testParserAcceptHeaderKeepsLegacySplit() {
+        final Map<String, Double> result = RequestUtil.parserAcceptHeader("compress; q=0.5, gzip ;q=0.2,");
+        assertEquals(2, result.size());
+        assertEquals(1.0, result.get("compress"));
+        assertEquals(0.2, result.get(" gzip "));
+    }
+
+    public void testParseAcceptHeaderTrimsNames() {
+        final Map<String, Double> result = new HashMap<>();
+        RequestUtil.parseAcceptHeader("compress; q=0.5, gzip ;q=0.2,", result::put);
+        assertEquals(2, result.size());
+        assertEquals(0.5, result.get("compress"));
+        assertEquals(0.2, result.get("gzip"));
+    }
+
+    public void testParseAcceptHeaderWithConsumer() {
+        final List<String> names = new ArrayList<>();
+        final List<Double> values = new ArrayList<>();
+        RequestUtil.parseAcceptHeader("gzip;q=0.8, br, identity;q=0", (name, q) -> {
+            names.add(name);
+            values.add(q);
+        });
+        assertEquals(Arrays.asList("gzip", "br", "identity"), names);
+        assertEquals(Arrays.asList(0.8, 1.0, 0.0), values);
+    }
+
+    public void testParserHeader() {
+        final Map<String, Map<String, String>> result = RequestUtil.parserHeader("a;x=1;y, b ; z = 2=3");
+        assertEquals(2, result.size());
+        assertEquals("1", result.get("a").get("x"));
+        assertEquals("y", result.get("a").get("y"));
+        assertEquals("2=3", result.get("b").get("z"));
+        // the result is still modifiable
+        result.get("b").put("w", "4");
+        result.remove("a");
+    }
+
+    public void testParserHeaderKeepsLegacySplit() {
+        Map<String, Map<String, String>> result = RequestUtil.parserHeader("a;x=\"q\"");
+        assertEquals("\"q\"", result.get("a").get("x"));
+
+        result = RequestUtil.parserHeader("a;x=\"1,2\",b");
+        assertEquals(3, result.size());
+        assertEquals("\"1", result.get("a").get("x"));
+        assertTrue(result.get("2\"").isEmpty());
+        assertTrue(result.get("b").isEmpty());
+
+        result = RequestUtil.parserHeader("a,,b");
+        assertEquals(3, result.size());
+        assertTrue(result.get("").isEmpty());
+
+        result = RequestUtil.parserHeader("a;;y");
+        assertEquals("", result.get("a").get(""));
+        assertEquals("y", result.get("a").get("y"));
+
+        result = RequestUtil.parserHeader("a;=v");
+        assertEquals("v", result.get("a").get(""));
+    }
+
+    public void testParseHeaderQuotedStrings() {
+        final Map<String, Map<String, String>> result =
+                RequestUtil.parseHeader("form-data; name=\"a,b;c\"; filename=\"x\\\"y.txt\" , other;p=\"unterminated");
+        assertEquals(Arrays.asList("form-data", "other"), new ArrayList<>(result.keySet()));
+        assertEquals("a,b;c", result.get("form-data").get("name"));
+        assertEquals("x\"y.txt", result.get("form-data").get("filename"));
+        assertEquals("unterminated", result.get("other").get("p"));
+    }
+
+    public void testParseHeaderIsImmutable() {
+        final Map<String, Map<String, String>> result = RequestUtil.parseHeader("a, b;x, c;x=1;y=2, , d;x=1;x=2");
+        assertEquals(Arrays.asList("a", "b", "c", "d"), new ArrayList<>(result.keySet()));
+        assertTrue(result.get("a").isEmpty());
+        assertEquals("x", result.get("b").get("x"));
+        assertEquals("2", result.get("c").get("y"));
+        assertEquals("2", result.get("d").get("x"));
+        for (final Map<String, String> parameters : result.values()) {
+            try {
+                parameters.put("z", "z");
+                fail("Parameters must not be modifiable");
+            } catch (UnsupportedOperationException expected) {
+            }
+        }
+        try {
+            result.remove("a");
+            fail("Result must not be modifiable");
+        } catch (UnsupportedOperationException expected) {
+        }
+    }
+
+    public void testParseHeaderWithVisitor() {
+        final StringBuilder events = new StringBuilder();
+        RequestUtil.parseHeader("a;x=1, ;y, b;=2;z", new RequestUtil.HeaderVisitor() {
+            @Override
+            public void token(String name) {
+                events.append('[').append(name).append(']');
+            }
+
+            @Override
+            public void parameter(String name, String value) {
+                events.append(name).append('=').append(value).append(' ');
+            }
+        });
+        assertEquals("[a]x=1 [b]z=null ", events.toString());
+    }
+
+    public void testParseHeaderIgnoresEmptyNames() {
+        final StringBuilder events = new StringBuilder();
+        RequestUtil.parseHeader(";a=b, ;c=\"d,e\", f;g", new RequestUtil.HeaderVisitor() {
+            @Override
+            public void token(String name) {
+                events.append('[').append(name).append(']');
+            }
+
+            @Override
+            public void parameter(String name, String value) {
+                events.append(name).append('=').append(value).append(' ');
+            }
+        });
+        assertEquals("[f]g=null ", events.toString());
+        assertTrue(RequestUtil.parseHeader(";a=b").isEmpty());
+    }
+
     protected HttpServletResponse getMockResponse() {
         return Mockito.mock(HttpServletResponse.class);
     }
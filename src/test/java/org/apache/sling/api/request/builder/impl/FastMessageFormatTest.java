@@ -22,6 +22,7 @@ import java.text.MessageFormat;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.Locale;
 
 import org.junit.Test;
 
@@ -55,6 +56,13 @@ public class FastMessageFormatTest {
             new FormatTest("a{0}bb{1}ccc{2}dddd", 10, 20, 30),
             new FormatTest("c{1}b{0}a", 1, 2),
             new FormatTest("c{1}b{0}a{1}c", 1, 2),
+            new FormatTest("{0}{0}", 1),
+            new FormatTest("a{0}b{2}c", 1, 2),
+            new FormatTest("a{1}b", 1),
+            new FormatTest("{0}", (Object) null),
+            new FormatTest("no placeholders", 1),
+            new FormatTest("a}{0}", 1),
+            new FormatTest("a{\u0661}b", 1, 2),
 
             // Type/style
             new FormatTest("c{0,number,#.##}b{0}a{1}c", 1, 2),
@@ -72,6 +80,40 @@ public class FastMessageFormatTest {
         }
     }
 
+    @Test
+    public void testReuse() {
+        FastMessageFormat fastMessageFormat = new FastMessageFormat();
+        assertEquals("a1b2", fastMessageFormat.format("a{0}b{1}", 1, 2));
+        assertEquals("a3b4", fastMessageFormat.format("a{0}b{1}", 3, 4));
+        assertEquals("x", fastMessageFormat.format("{0}", "x"));
+    }
+
+    @Test
+    public void testDefaultLocaleChanges() {
+        final Locale defaultLocale = Locale.getDefault(Locale.Category.FORMAT);
+        final FastMessageFormat fastMessageFormat = new FastMessageFormat();
+        final Object[] args = {1234.5, new Date(0)};
+        try {
+            for (Locale locale : new Locale[] {Locale.US, Locale.GERMANY, Locale.forLanguageTag("th-TH-u-nu-thai")}) {
+                Locale.setDefault(Locale.Category.FORMAT, locale);
+                assertEquals(
+                        locale.toString(),
+                        MessageFormat.format("{0} {1}", args),
+                        fastMessageFormat.format("{0} {1}", args));
+            }
+        } finally {
+            Locale.setDefault(Locale.Category.FORMAT, defaultLocale);
+        }
+    }
+
+    @Test
+    public void testManyPatterns() {
+        FastMessageFormat fastMessageFormat = new FastMessageFormat();
+        for (int i = 0; i < FastMessageFormat.MAX_CACHED_PATTERNS * 2; i++) {
+            assertEquals(i + ":x", fastMessageFormat.format(i + ":{0}", "x"));
+        }
+    }
+
     private static class FormatTest {
         final String pattern;
         final Object[] args;
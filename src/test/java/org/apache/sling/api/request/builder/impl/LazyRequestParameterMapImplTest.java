@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.request.builder.impl;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.sling.api.request.RequestParameter;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class LazyRequestParameterMapImplTest {
+
+    @Test
+    public void testGetValues() throws UnsupportedEncodingException {
+        final LazyRequestParameterMapImpl map =
+                new LazyRequestParameterMapImpl("a=1&b=x+y%21&a=2&&c&d=&e%3D=%E2%82%AC", StandardCharsets.UTF_8);
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e="), new ArrayList<>(map.keySet()));
+        assertEquals(5, map.size());
+
+        final RequestParameter[] a = map.getValues("a");
+        assertEquals(2, a.length);
+        assertEquals("1", a[0].getString());
+        assertEquals("2", a[1].getString());
+        assertSame(a, map.get("a"));
+        assertSame(a[0], map.getValue("a"));
+
+        assertEquals("x y!", map.getValue("b").getString());
+        assertEquals("", map.getValue("c").getString());
+        assertEquals("", map.getValue("d").getString());
+        final RequestParameter euro = map.getValue("e=");
+        assertEquals("€", euro.getString());
+        assertArrayEquals("€".getBytes(StandardCharsets.UTF_8), euro.get());
+        assertEquals(3L, euro.getSize());
+        assertEquals("€", euro.getString("UTF-8"));
+        assertTrue(euro.isFormField());
+        assertNull(euro.getContentType());
+        assertNull(euro.getFileName());
+
+        assertNull(map.getValues("f"));
+        assertNull(map.getValue("f"));
+        assertNull(map.get(1));
+        assertFalse(map.containsKey("f"));
+    }
+
+    @Test
+    public void testStringIsCached() {
+        final LazyRequestParameterMapImpl map = new LazyRequestParameterMapImpl("a=%41", StandardCharsets.UTF_8);
+        final RequestParameter a = map.getValue("a");
+        assertEquals("A", a.getString());
+        assertSame(a.getString(), a.getString());
+        assertEquals("A", a.toString());
+    }
+
+    @Test
+    public void testInvalidEscape() {
+        final LazyRequestParameterMapImpl map = new LazyRequestParameterMapImpl("a=%zz&%=b", StandardCharsets.UTF_8);
+        assertEquals("%zz", map.getValue("a").getString());
+        assertEquals("b", map.getValue("%").getString());
+    }
+
+    @Test
+    public void testEmpty() {
+        assertTrue(new LazyRequestParameterMapImpl(null, StandardCharsets.UTF_8).isEmpty());
+        assertTrue(new LazyRequestParameterMapImpl("", StandardCharsets.UTF_8).isEmpty());
+    }
+
+    @Test
+    public void testAdditionalParameters() {
+        final RequestParameter file = new RequestParameterImpl("a", new byte[] {1}, "file", null);
+        final RequestParameter other = new RequestParameterImpl("b", new byte[] {2}, "other", null);
+        final Map<String, List<RequestParameter>> additional = new LinkedHashMap<>();
+        additional.put("a", Collections.singletonList(file));
+        additional.put("b", Collections.singletonList(other));
+        final LazyRequestParameterMapImpl map =
+                new LazyRequestParameterMapImpl("a=1", StandardCharsets.UTF_8, additional);
+        assertEquals(2, map.size());
+        assertEquals(2, map.getValues("a").length);
+        assertSame(file, map.getValues("a")[1]);
+        assertSame(other, map.getValue("b"));
+        int count = 0;
+        for (final Map.Entry<String, RequestParameter[]> entry : map.entrySet()) {
+            count += entry.getValue().length;
+        }
+        assertEquals(3, count);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadOnly() {
+        new LazyRequestParameterMapImpl("a=1", StandardCharsets.UTF_8).put("b", new RequestParameter[0]);
+    }
+}
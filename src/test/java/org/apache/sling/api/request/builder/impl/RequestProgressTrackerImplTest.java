@@ -23,7 +23,11 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -139,6 +143,74 @@ public class RequestProgressTrackerImplTest {
         assertTrue(result.contains("LOG foo__bar"));
     }
 
+    @Test
+    public void ringModeFormatsLazily() {
+        final RequestProgressTrackerImpl ring = new RequestProgressTrackerImpl(100);
+        final StringBuilder arg = new StringBuilder("before");
+        ring.startTimer("foo");
+        ring.log("value {0}", arg);
+        ring.logTimer("foo", "done {0}", 42);
+        arg.setLength(0);
+        arg.append("after");
+        ring.done();
+
+        final List<String> messages = new ArrayList<>();
+        ring.getMessages().forEachRemaining(m -> messages.add(m.substring(8)));
+        assertEquals(6, messages.size());
+        assertEquals("TIMER_START{Request Processing}\n", messages.get(0));
+        assertEquals("TIMER_START{foo}\n", messages.get(2));
+        assertEquals("LOG value after\n", messages.get(3));
+        assertTrue(messages.get(4).endsWith(",foo} done 42\n"));
+        assertTrue(messages.get(5).endsWith(",Request Processing} Request Processing\n"));
+    }
+
+    @Test
+    public void ringModeKeepsMostRecentEntries() {
+        final RequestProgressTrackerImpl ring = new RequestProgressTrackerImpl(3);
+        for (int i = 0; i < 10; i++) {
+            ring.log("entry {0}", i);
+        }
+        final List<String> messages = new ArrayList<>();
+        ring.getMessages().forEachRemaining(m -> messages.add(m.substring(8)));
+        assertEquals(
+                Arrays.asList("COMMENT 9 older entries dropped\n", "LOG entry 7\n", "LOG entry 8\n", "LOG entry 9\n"),
+                messages);
+
+        // timers still work after their start entry has been dropped
+        ring.logTimer("Request Processing");
+        final List<String> timers = new ArrayList<>();
+        ring.forEachTimer((name, nanos) -> timers.add(name));
+        assertEquals(Collections.singletonList("Request Processing"), timers);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void ringModeNeedsCapacity() {
+        new RequestProgressTrackerImpl(0);
+    }
+
+    @Test
+    public void forEachTimer() {
+        addTestData();
+        final List<String> names = new ArrayList<>();
+        final List<Long> durations = new ArrayList<>();
+        tracker.forEachTimer((name, nanos) -> {
+            names.add(name);
+            durations.add(nanos);
+        });
+        assertEquals(Arrays.asList("bar", "foo", "Request Processing"), names);
+        assertTrue(durations.get(0) <= durations.get(1));
+        assertTrue(durations.get(2) <= tracker.getDuration());
+    }
+
+    @Test
+    public void unknownTimerIsIgnored() {
+        tracker.logTimer("unknown");
+        tracker.logTimer("unknown", "message");
+        final List<String> names = new ArrayList<>();
+        tracker.forEachTimer((name, nanos) -> names.add(name));
+        assertTrue(names.isEmpty());
+    }
+
     private String substringAfter(String string, char ch) {
         final int pos = string.indexOf(ch);
         return string.substring(pos);
@@ -22,7 +22,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -182,6 +185,69 @@ public class SlingJakartaHttpServletRequestImplTest {
         assertNull(req.getPart("a"));
     }
 
+    @Test
+    public void testRequestParameters() {
+        final RequestParameter file = new RequestParameterImpl("a", new byte[] {1, 2}, "file.bin", null);
+        req = builder.withParameter("a", "b").withRequestParameter(file).buildJakartaRequest();
+
+        assertArrayEquals(new String[] {"b"}, req.getParameterValues("a"));
+        assertEquals(2, req.getRequestParameters("a").length);
+        assertEquals("b", req.getRequestParameter("a").getString());
+        assertSame(file, req.getRequestParameters("a")[1]);
+        assertEquals(2, req.getRequestParameterList().size());
+    }
+
+    @Test
+    public void testLazyRequestParameterMap() {
+        final RequestParameter file = new RequestParameterImpl("f", new byte[] {1, 2}, "file.bin", null);
+        req = builder.withParameter("a", "b")
+                .withParameter("c", new String[] {"d", "e f"})
+                .withRequestParameter(file)
+                .withLazyRequestParameterMap(true)
+                .buildJakartaRequest();
+
+        assertTrue(req.getRequestParameterMap() instanceof LazyRequestParameterMapImpl);
+        assertEquals("b", req.getRequestParameter("a").getString());
+        assertEquals("e f", req.getRequestParameters("c")[1].getString());
+        assertSame(file, req.getRequestParameter("f"));
+        assertNull(req.getRequestParameter("g"));
+        assertEquals(4, req.getRequestParameterList().size());
+    }
+
+    @Test
+    public void testLazyRequestParameterMapEqualsEager() {
+        final RequestParameter file = new RequestParameterImpl("f", new byte[] {1, 2}, "file.bin", null);
+        final Map<String, List<String>> eager = toStrings(builder.withParameter("a", new String[0])
+                .withParameter("b", new String[] {"x y", "&=%"})
+                .withParameter("c", "")
+                .withRequestParameter(file)
+                .buildJakartaRequest()
+                .getRequestParameterMap());
+        final Map<String, List<String>> lazy = toStrings(new SlingHttpServletRequestBuilderImpl(resource)
+                .withParameter("a", new String[0])
+                .withParameter("b", new String[] {"x y", "&=%"})
+                .withParameter("c", "")
+                .withRequestParameter(file)
+                .withLazyRequestParameterMap(true)
+                .buildJakartaRequest()
+                .getRequestParameterMap());
+        assertEquals(Arrays.asList("a", "b", "c", "f"), new ArrayList<>(eager.keySet()));
+        assertEquals(Collections.emptyList(), eager.get("a"));
+        assertEquals(eager, lazy);
+    }
+
+    private static Map<String, List<String>> toStrings(final Map<String, RequestParameter[]> map) {
+        final Map<String, List<String>> result = new LinkedHashMap<>();
+        for (final Map.Entry<String, RequestParameter[]> entry : map.entrySet()) {
+            final List<String> values = new ArrayList<>();
+            for (final RequestParameter parameter : entry.getValue()) {
+                values.add(parameter.getString());
+            }
+            result.put(entry.getKey(), values);
+        }
+        return result;
+    }
+
     @Test
     public void testNoQueryString() {
         req = builder.buildJakartaRequest();
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.request.builder.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.sling.api.request.builder.Builders;
+import org.apache.sling.api.request.builder.CloseableRequestParameter;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SpillingRequestParameterImplTest {
+
+    private static byte[] content(final int size) {
+        final byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) i;
+        }
+        return content;
+    }
+
+    @Test
+    public void testInMemory() throws IOException {
+        final byte[] content = "bar".getBytes(StandardCharsets.UTF_8);
+        try (SpillingRequestParameterImpl param = new SpillingRequestParameterImpl(
+                "foo", new ByteArrayInputStream(content), "file.txt", "text/plain", 3)) {
+            assertEquals("foo", param.getName());
+            assertEquals("file.txt", param.getFileName());
+            assertEquals("text/plain", param.getContentType());
+            assertFalse(param.isFormField());
+            assertEquals(3L, param.getSize());
+            assertNull(param.getPath());
+            assertArrayEquals(content, param.get());
+            assertEquals("bar", param.getString());
+            assertEquals("bar", param.getString("UTF-8"));
+            try (InputStream is = param.getInputStream()) {
+                assertArrayEquals(content, is.readAllBytes());
+            }
+        }
+    }
+
+    @Test
+    public void testSpillToFile() throws IOException {
+        final byte[] content = content(100_000);
+        final Path path;
+        try (SpillingRequestParameterImpl param =
+                new SpillingRequestParameterImpl("foo", new ByteArrayInputStream(content), null, null, 1024)) {
+            assertEquals(100_000L, param.getSize());
+            path = param.getPath();
+            assertNotNull(path);
+            assertEquals(100_000L, Files.size(path));
+            assertArrayEquals(content, param.get());
+            try (InputStream is = param.getInputStream()) {
+                assertArrayEquals(content, is.readAllBytes());
+            }
+            try (FileChannel channel = FileChannel.open(path)) {
+                final ByteBuffer buffer = ByteBuffer.allocate(10);
+                channel.read(buffer, 1000);
+                assertEquals((byte) 1000, buffer.get(0));
+            }
+        }
+        assertFalse("Temporary file is deleted on close", Files.exists(path));
+    }
+
+    @Test
+    public void testThresholdZero() throws IOException {
+        try (SpillingRequestParameterImpl param =
+                new SpillingRequestParameterImpl("foo", new ByteArrayInputStream(new byte[0]), null, null, 0)) {
+            assertNull(param.getPath());
+            assertEquals(0L, param.getSize());
+        }
+        try (SpillingRequestParameterImpl param =
+                new SpillingRequestParameterImpl("foo", new ByteArrayInputStream(new byte[1]), null, null, 0)) {
+            assertNotNull(param.getPath());
+            assertEquals(1L, param.getSize());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeThreshold() throws IOException {
+        new SpillingRequestParameterImpl("foo", new ByteArrayInputStream(new byte[0]), null, null, -1);
+    }
+
+    @Test
+    public void testMaxThreshold() throws IOException {
+        try (SpillingRequestParameterImpl param = new SpillingRequestParameterImpl(
+                "foo", new ByteArrayInputStream(content(10)), null, null, Integer.MAX_VALUE)) {
+            assertNull(param.getPath());
+            assertEquals(10L, param.getSize());
+        }
+    }
+
+    @Test
+    public void testBuilders() throws IOException {
+        final Path path;
+        try (CloseableRequestParameter param =
+                Builders.newRequestParameter("foo", new ByteArrayInputStream(content(10)), "f", null, 5)) {
+            path = param.getPath();
+            assertNotNull(path);
+            assertTrue(Files.exists(path));
+        }
+        assertFalse("Temporary file is deleted on close", Files.exists(path));
+        assertNull(Builders.newRequestParameter("foo", "bar").getPath());
+    }
+}
@@ -66,4 +66,77 @@ public class JakartaMediaRangeListTest extends TestCase {
         JakartaMediaRangeList rangeList = new JakartaMediaRangeList(req);
         assertTrue("Did not contain media type from query param", rangeList.contains("text/html"));
     }
+
+    public void testOfIsSharedAndImmutable() {
+        final String header = "text/html, application/json;q=0.9";
+        JakartaMediaRangeList list = JakartaMediaRangeList.of(header);
+        assertSame(list, JakartaMediaRangeList.of(new String(header)));
+        assertEquals(new JakartaMediaRangeList(header).toString(), list.toString());
+        try {
+            list.add(list.first());
+            fail("Shared list must not be modifiable");
+        } catch (UnsupportedOperationException expected) {
+        }
+        try {
+            list.iterator().next();
+            list.iterator().remove();
+            fail("Shared list must not be modifiable");
+        } catch (UnsupportedOperationException | IllegalStateException expected) {
+        }
+        try {
+            list.last().getParameters().clear();
+            fail("Shared media range must not be modifiable");
+        } catch (UnsupportedOperationException expected) {
+        }
+        try {
+            list.headSet(list.last()).clear();
+            fail("Shared list must not be modifiable");
+        } catch (UnsupportedOperationException expected) {
+        }
+        assertEquals(2, list.size());
+        assertTrue(JakartaMediaRangeList.of((String) null).contains("image/png"));
+    }
+
+    public void testOfRequest() {
+        SlingJakartaHttpServletRequest req = Mockito.mock(SlingJakartaHttpServletRequest.class);
+        Mockito.when(req.getHeader(JakartaMediaRangeList.HEADER_ACCEPT)).thenReturn("text/plain");
+        Mockito.when(req.getParameter(JakartaMediaRangeList.PARAM_ACCEPT)).thenReturn("text/html");
+        JakartaMediaRangeList list = JakartaMediaRangeList.of(req);
+        assertSame(JakartaMediaRangeList.of("text/html"), list);
+        assertFalse(list.contains("text/plain"));
+    }
+
+    public void testParsing() {
+        JakartaMediaRangeList list = new JakartaMediaRangeList(" text/html ;level=1;q=0.5;;, image/ ,,text//x,");
+        // like before, the empty media range between the commas is parsed as "/*"
+        assertEquals(4, list.size());
+        JakartaMediaRangeList.MediaRange last = list.last();
+        assertEquals(0.5, last.getQ());
+        assertEquals("1", last.getParameters().get("level"));
+        assertEquals("html", last.getSubtype());
+        assertTrue(list.contains("image/*"));
+        assertTrue(list.contains("image/"));
+        assertTrue(list.contains("text//y"));
+        assertFalse(list.contains("text/x"));
+        assertFalse(new JakartaMediaRangeList("text/html;q=2").contains("text/html"));
+        assertFalse(new JakartaMediaRangeList("text/html;level").contains("text/html"));
+    }
+
+    public void testContainsSimpleTypes() {
+        JakartaMediaRangeList list = new JakartaMediaRangeList("text/html, application/json;q=0.9, image/png;level=1");
+        assertTrue(list.contains("text/html"));
+        assertFalse(list.contains("application/json"));
+        assertFalse(list.contains("image/png"));
+        assertTrue(list.contains("image/png;level=1"));
+        assertTrue(list.contains(" text/html"));
+        assertFalse(list.contains("text/plain"));
+    }
+
+    public void testPreferSimpleTypes() {
+        JakartaMediaRangeList list = new JakartaMediaRangeList("text/plain;q=0.5, application/json, */*;q=0.1");
+        assertEquals("application/json", list.prefer("text/plain", "application/json"));
+        assertEquals("text/plain", list.prefer("text/plain", "image/png"));
+        assertNull(list.prefer("image/png"));
+        assertEquals("application/json", list.prefer(" application/json"));
+    }
 }
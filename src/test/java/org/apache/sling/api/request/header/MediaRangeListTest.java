@@ -67,4 +67,77 @@ public class MediaRangeListTest extends TestCase {
         MediaRangeList rangeList = new MediaRangeList(req);
         assertTrue("Did not contain media type from query param", rangeList.contains("text/html"));
     }
+
+    public void testOfIsSharedAndImmutable() {
+        final String header = "text/html, application/json;q=0.9";
+        MediaRangeList list = MediaRangeList.of(header);
+        assertSame(list, MediaRangeList.of(new String(header)));
+        assertEquals(new MediaRangeList(header).toString(), list.toString());
+        try {
+            list.add(list.first());
+            fail("Shared list must not be modifiable");
+        } catch (UnsupportedOperationException expected) {
+        }
+        try {
+            list.iterator().next();
+            list.iterator().remove();
+            fail("Shared list must not be modifiable");
+        } catch (UnsupportedOperationException | IllegalStateException expected) {
+        }
+        try {
+            list.last().getParameters().clear();
+            fail("Shared media range must not be modifiable");
+        } catch (UnsupportedOperationException expected) {
+        }
+        try {
+            list.headSet(list.last()).clear();
+            fail("Shared list must not be modifiable");
+        } catch (UnsupportedOperationException expected) {
+        }
+        assertEquals(2, list.size());
+        assertTrue(MediaRangeList.of((String) null).contains("image/png"));
+    }
+
+    public void testOfRequest() {
+        SlingHttpServletRequest req = Mockito.mock(SlingHttpServletRequest.class);
+        Mockito.when(req.getHeader(MediaRangeList.HEADER_ACCEPT)).thenReturn("text/plain");
+        Mockito.when(req.getParameter(MediaRangeList.PARAM_ACCEPT)).thenReturn("text/html");
+        MediaRangeList list = MediaRangeList.of(req);
+        assertSame(MediaRangeList.of("text/html"), list);
+        assertFalse(list.contains("text/plain"));
+    }
+
+    public void testParsing() {
+        MediaRangeList list = new MediaRangeList(" text/html ;level=1;q=0.5;;, image/ ,,text//x,");
+        // like before, the empty media range between the commas is parsed as "/*"
+        assertEquals(4, list.size());
+        MediaRangeList.MediaRange last = list.last();
+        assertEquals(0.5, last.getQ());
+        assertEquals("1", last.getParameters().get("level"));
+        assertEquals("html", last.getSubtype());
+        assertTrue(list.contains("image/*"));
+        assertTrue(list.contains("image/"));
+        assertTrue(list.contains("text//y"));
+        assertFalse(list.contains("text/x"));
+        assertFalse(new MediaRangeList("text/html;q=2").contains("text/html"));
+        assertFalse(new MediaRangeList("text/html;level").contains("text/html"));
+    }
+
+    public void testContainsSimpleTypes() {
+        MediaRangeList list = new MediaRangeList("text/html, application/json;q=0.9, image/png;level=1");
+        assertTrue(list.contains("text/html"));
+        assertFalse(list.contains("application/json"));
+        assertFalse(list.contains("image/png"));
+        assertTrue(list.contains("image/png;level=1"));
+        assertTrue(list.contains(" text/html"));
+        assertFalse(list.contains("text/plain"));
+    }
+
+    public void testPreferSimpleTypes() {
+        MediaRangeList list = new MediaRangeList("text/plain;q=0.5, application/json, */*;q=0.1");
+        assertEquals("application/json", list.prefer("text/plain", "application/json"));
+        assertEquals("text/plain", list.prefer("text/plain", "image/png"));
+        assertNull(list.prefer("image/png"));
+        assertEquals("application/json", list.prefer(" application/json"));
+    }
 }
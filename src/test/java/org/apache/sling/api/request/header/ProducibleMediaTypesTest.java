@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.request.header;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ProducibleMediaTypesTest {
+
+    private final ProducibleMediaTypes types =
+            new ProducibleMediaTypes("text/html", "application/json", "text/plain;charset=utf-8");
+
+    private String prefer(final String accept) {
+        return types.prefer(new JakartaMediaRangeList(accept));
+    }
+
+    @Test
+    public void testServerOrderForEqualQuality() {
+        assertEquals("text/html", prefer(null));
+        assertEquals("text/html", prefer("*/*"));
+        assertEquals("application/json", prefer("application/json, text/plain"));
+    }
+
+    @Test
+    public void testQualityFactors() {
+        assertEquals("application/json", prefer("text/html;q=0.5, application/json"));
+        assertEquals("text/plain;charset=utf-8", prefer("text/*;q=0.8, text/html;q=0.2, */*;q=0.1"));
+    }
+
+    @Test
+    public void testMostSpecificRangeWins() {
+        // text/html is excluded by the more specific range, although text/* accepts it
+        assertEquals("text/plain;charset=utf-8", prefer("text/html;q=0, text/*"));
+        assertEquals("application/json", prefer("text/*;q=0, */*"));
+    }
+
+    @Test
+    public void testParameters() {
+        assertEquals("text/plain;charset=utf-8", prefer("text/plain;charset=utf-8, text/html;q=0.5"));
+        assertEquals("text/html", prefer("text/plain;charset=iso-8859-1, text/html;q=0.5"));
+        assertEquals("text/plain;charset=utf-8", prefer("text/plain;charset=utf-8, text/*;q=0"));
+    }
+
+    @Test
+    public void testSpacesAroundParameters() {
+        final ProducibleMediaTypes htmlOrJson = new ProducibleMediaTypes("text/html", "application/json");
+        assertEquals(
+                "application/json",
+                htmlOrJson.prefer(JakartaMediaRangeList.of("text/html; q=0.5, application/json; q=0.9")));
+        assertEquals("application/json", prefer("text/html; q=0.5, application/json; q=0.9"));
+        assertEquals("text/plain;charset=utf-8", prefer("text/plain; charset = utf-8, text/html; q=0.5"));
+        assertEquals("text/html", prefer("text/plain; Charset=iso-8859-1, text/html; q=0.5"));
+    }
+
+    @Test
+    public void testParameterNamesIgnoreCase() {
+        assertEquals("text/plain;charset=utf-8", prefer("text/plain;CHARSET=utf-8, text/html;Q=0.5"));
+        assertEquals("text/html", prefer("text/plain;Q=0.1, text/html;q=0.5"));
+    }
+
+    @Test
+    public void testNotAcceptable() {
+        assertNull(prefer("image/png"));
+        assertNull(prefer("*/*;q=0"));
+    }
+
+    @Test
+    public void testSharedListsAreCached() {
+        final JakartaMediaRangeList accept = JakartaMediaRangeList.of("application/json, */*;q=0.1");
+        final String result = types.prefer(accept);
+        assertEquals("application/json", result);
+        assertSame(result, types.prefer(accept));
+        assertEquals("text/html", types.prefer(JakartaMediaRangeList.of("text/html")));
+    }
+
+    @Test
+    public void testModifiableListsAreNotCached() {
+        final JakartaMediaRangeList accept = new JakartaMediaRangeList("application/json");
+        assertEquals("application/json", types.prefer(accept));
+        accept.add(accept.new MediaRange("text/html"));
+        assertEquals("text/html", types.prefer(accept));
+    }
+
+    @SuppressWarnings("deprecation")
+    @Test
+    public void testDeprecatedMediaRangeList() {
+        assertEquals("application/json", types.prefer(new MediaRangeList("text/*;q=0.5, application/json")));
+        assertEquals("application/json", types.prefer(MediaRangeList.of("text/*;q=0.5, application/json")));
+    }
+
+    @Test
+    public void testGetTypes() {
+        assertEquals(Arrays.asList("text/html", "application/json", "text/plain;charset=utf-8"), types.getTypes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWildcardIsNotProducible() {
+        new ProducibleMediaTypes("text/*");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoTypes() {
+        new ProducibleMediaTypes();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.request.impl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class BoundedCacheTest {
+
+    @Test
+    public void testComputesOnce() {
+        final BoundedCache<String, Object> cache = new BoundedCache<>(2);
+        final AtomicInteger computed = new AtomicInteger();
+        final Object value = cache.get("a", key -> {
+            computed.incrementAndGet();
+            return new Object();
+        });
+        assertSame(value, cache.get("a", key -> {
+            computed.incrementAndGet();
+            return new Object();
+        }));
+        assertEquals(1, computed.get());
+    }
+
+    @Test
+    public void testEvictsOldestEntries() {
+        final BoundedCache<Integer, String> cache = new BoundedCache<>(3);
+        final AtomicInteger computed = new AtomicInteger();
+        for (int i = 0; i < 5; i++) {
+            cache.get(i, key -> {
+                computed.incrementAndGet();
+                return key.toString();
+            });
+        }
+        assertEquals(3, cache.size());
+        assertEquals(5, computed.get());
+
+        // the newest entries are kept, not the whole cache cleared
+        for (int i = 2; i < 5; i++) {
+            assertEquals(String.valueOf(i), cache.get(i, key -> {
+                computed.incrementAndGet();
+                return key.toString();
+            }));
+        }
+        assertEquals(5, computed.get());
+
+        // the oldest entries were evicted
+        cache.get(0, key -> {
+            computed.incrementAndGet();
+            return key.toString();
+        });
+        assertEquals(6, computed.get());
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void testReinsertedEntryIsNotEvictedEarly() {
+        final BoundedCache<String, Object> cache = new BoundedCache<>(2);
+        cache.get("a", key -> new Object());
+        cache.get("b", key -> new Object());
+        // evicts a
+        cache.get("c", key -> new Object());
+        // evicts b
+        final Object a = cache.get("a", key -> new Object());
+        assertEquals(2, cache.size());
+        // evicts c, not the new value of a
+        cache.get("d", key -> new Object());
+        assertSame(a, cache.get("a", key -> new Object()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxSize() {
+        new BoundedCache<String, String>(0);
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.resource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AbstractIterativeResourceVisitorTest {
+
+    private static final List<String> TREE =
+            Arrays.asList("/a", "/a/b", "/a/b/c", "/a/b/d", "/a/e", "/a/e/f", "/a/e/f/g", "/a/h");
+
+    /**
+     * Create a resource resolver mock serving the resources of {@link #TREE}.
+     */
+    private static ResourceResolver createResolver() {
+        final ResourceResolver resolver = mock(ResourceResolver.class);
+        final Map<String, Resource> resources = new LinkedHashMap<>();
+        for (final String path : TREE) {
+            resources.put(path, new SyntheticResource(resolver, path, null));
+        }
+        when(resolver.getResource(anyString())).thenAnswer(invocation -> resources.get(invocation.getArgument(0)));
+        when(resolver.listChildren(any(Resource.class))).thenAnswer(invocation -> {
+            final String parentPath = ((Resource) invocation.getArgument(0)).getPath();
+            final List<Resource> children = new ArrayList<>();
+            for (final Resource resource : resources.values()) {
+                if (parentPath.equals(ResourceUtil.getParent(resource.getPath()))) {
+                    children.add(resource);
+                }
+            }
+            return children.iterator();
+        });
+        return resolver;
+    }
+
+    private static final class CollectingVisitor extends AbstractIterativeResourceVisitor {
+
+        final List<String> paths = new ArrayList<>();
+
+        final Set<String> skipped = new HashSet<>();
+
+        CollectingVisitor() {}
+
+        CollectingVisitor(final Order order, final int maxDepth) {
+            super(order, maxDepth);
+        }
+
+        @Override
+        protected void visit(final @NotNull Resource res) {
+            paths.add(res.getPath());
+        }
+
+        @Override
+        protected boolean traverse(final @NotNull Resource res, final int depth) {
+            return !skipped.contains(res.getPath());
+        }
+    }
+
+    @Test
+    public void testDepthFirstMatchesRecursiveVisitor() {
+        final Resource root = createResolver().getResource("/a");
+        final List<String> expected = new ArrayList<>();
+        new AbstractResourceVisitor() {
+            @Override
+            protected void visit(final @NotNull Resource res) {
+                expected.add(res.getPath());
+            }
+        }.accept(root);
+
+        final CollectingVisitor visitor = new CollectingVisitor();
+        visitor.accept(root);
+        assertEquals(TREE, expected);
+        assertEquals(expected, visitor.paths);
+    }
+
+    @Test
+    public void testBreadthFirst() {
+        final CollectingVisitor visitor =
+                new CollectingVisitor(AbstractIterativeResourceVisitor.Order.BREADTH_FIRST, Integer.MAX_VALUE);
+        visitor.accept(createResolver().getResource("/a"));
+        assertEquals(
+                Arrays.asList("/a", "/a/b", "/a/e", "/a/h", "/a/b/c", "/a/b/d", "/a/e/f", "/a/e/f/g"), visitor.paths);
+    }
+
+    @Test
+    public void testMaxDepthAndPruning() {
+        for (final AbstractIterativeResourceVisitor.Order order : AbstractIterativeResourceVisitor.Order.values()) {
+            final CollectingVisitor visitor = new CollectingVisitor(order, 2);
+            visitor.skipped.add("/a/b");
+            visitor.accept(createResolver().getResource("/a"));
+            Collections.sort(visitor.paths);
+            assertEquals(order.name(), Arrays.asList("/a", "/a/b", "/a/e", "/a/e/f", "/a/h"), visitor.paths);
+        }
+    }
+
+    @Test
+    public void testDeepTree() {
+        final int depth = 100_000;
+        final List<Resource> chain = new ArrayList<>();
+        for (int i = 0; i < depth; i++) {
+            final int index = i;
+            chain.add(new SyntheticResource(null, "/" + i, null) {
+                @Override
+                public @NotNull Iterator<Resource> listChildren() {
+                    return index + 1 < depth
+                            ? Collections.singletonList(chain.get(index + 1)).iterator()
+                            : Collections.emptyIterator();
+                }
+            });
+        }
+        final int[] count = new int[1];
+        new AbstractIterativeResourceVisitor() {
+            @Override
+            protected void visit(final @NotNull Resource res) {
+                count[0]++;
+            }
+        }.accept(chain.get(0));
+        assertEquals(depth, count[0]);
+    }
+
+    @Test
+    public void testParallel() throws LoginException {
+        final ResourceResolver resolver = createResolver();
+        final List<ResourceResolver> clones = Collections.synchronizedList(new ArrayList<>());
+        when(resolver.clone(null)).thenAnswer(invocation -> {
+            final ResourceResolver clone = createResolver();
+            clones.add(clone);
+            return clone;
+        });
+        final Set<String> visited = Collections.synchronizedSet(new HashSet<>());
+        final AbstractParallelResourceVisitor visitor = new AbstractParallelResourceVisitor() {
+            @Override
+            protected void visit(final @NotNull Resource res) {
+                assertTrue(visited.add(res.getPath()));
+            }
+        };
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            visitor.accept(resolver.getResource("/a"), pool);
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(new HashSet<>(TREE), visited);
+        assertTrue(!clones.isEmpty() && clones.size() <= 2);
+        for (final ResourceResolver clone : clones) {
+            verify(clone, times(1)).close();
+        }
+    }
+}
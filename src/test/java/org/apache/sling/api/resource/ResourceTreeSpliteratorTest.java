@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.resource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ResourceTreeSpliteratorTest {
+
+    private final Map<String, List<Resource>> children = new ConcurrentHashMap<>();
+
+    private final AtomicInteger listed = new AtomicInteger();
+
+    private Resource root;
+
+    /**
+     * Creates a tree with the given number of children per resource and depth.
+     */
+    private Resource createTree(final ResourceResolver resolver, final String path, final int width, final int depth) {
+        final Resource resource = new SyntheticResource(resolver, path, null);
+        final List<Resource> list = new ArrayList<>();
+        if (depth > 0) {
+            for (int i = 0; i < width; i++) {
+                list.add(createTree(resolver, path + "/" + i, width, depth - 1));
+            }
+        }
+        children.put(path, list);
+        return resource;
+    }
+
+    @Before
+    public void setUp() {
+        final ResourceResolver resolver = mock(ResourceResolver.class);
+        when(resolver.listChildren(any(Resource.class))).thenAnswer(invocation -> {
+            listed.incrementAndGet();
+            final Iterator<Resource> iter = children.get(((Resource) invocation.getArgument(0)).getPath())
+                    .iterator();
+            return iter;
+        });
+        root = createTree(resolver, "/r", 3, 3);
+    }
+
+    private static List<String> paths(final Stream<Resource> stream) {
+        return stream.map(Resource::getPath).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testDepthFirstOrder() {
+        final List<String> paths = paths(ResourceUtil.streamTree(root));
+        assertEquals(1 + 3 + 9 + 27, paths.size());
+        assertEquals(Arrays.asList("/r", "/r/0", "/r/0/0", "/r/0/0/0", "/r/0/0/1"), paths.subList(0, 5));
+        assertEquals("/r/2/2/2", paths.get(paths.size() - 1));
+    }
+
+    @Test
+    public void testLimits() {
+        assertEquals(Arrays.asList("/r", "/r/0", "/r/1", "/r/2"), paths(ResourceUtil.streamTree(root, 1, null)));
+        assertEquals(
+                Arrays.asList("/r", "/r/0", "/r/1", "/r/1/0", "/r/1/1", "/r/1/2", "/r/2"),
+                paths(ResourceUtil.streamTree(
+                        root,
+                        2,
+                        r -> !r.getPath().equals("/r/0") && !r.getPath().equals("/r/2"))));
+    }
+
+    @Test
+    public void testShortCircuit() {
+        final Optional<Resource> found = ResourceUtil.streamTree(root)
+                .filter(r -> r.getPath().equals("/r/0/1"))
+                .findFirst();
+        assertTrue(found.isPresent());
+        // only /r, /r/0, /r/0/0 and the children of /r/0/0 have been asked for their children
+        assertEquals(6, listed.get());
+    }
+
+    @Test
+    public void testDoesNotSplit() {
+        final Spliterator<Resource> spliterator = new ResourceTreeSpliterator(root, Integer.MAX_VALUE, null);
+        assertNull(spliterator.trySplit());
+        spliterator.tryAdvance(r -> {});
+        assertNull(spliterator.trySplit());
+    }
+
+    @Test
+    public void testParallelUsesSingleThread() {
+        final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        ResourceUtil.streamTree(root).parallel().forEach(r -> threads.add(Thread.currentThread()));
+        assertEquals(1, threads.size());
+    }
+
+    @Test
+    public void testParallel() {
+        final List<String> expected = paths(ResourceUtil.streamTree(root));
+        assertEquals(expected, paths(ResourceUtil.streamTree(root).parallel()));
+        assertEquals(expected.size(), ResourceUtil.streamTree(root).parallel().count());
+    }
+}
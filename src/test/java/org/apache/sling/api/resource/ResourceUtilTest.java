@@ -18,12 +18,18 @@
  */
 package org.apache.sling.api.resource;
 
+import java.lang.reflect.Proxy;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.sling.api.wrappers.ValueMapDecorator;
 import org.junit.Test;
@@ -32,10 +38,18 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class ResourceUtilTest {
@@ -148,6 +162,87 @@ public class ResourceUtilTest {
         assertEquals("", ResourceUtil.normalize(""));
     }
 
+    @Test
+    public void testNormalizeReturnsSameInstance() {
+        for (final String path : new String[] {"", "/", "/a", "/a/b.c", "a/b", "/a/.b", "/a/b..", "security:/a"}) {
+            assertSame(path, ResourceUtil.normalize(path));
+        }
+    }
+
+    @Test
+    public void testNormalizeMatchesSplitBasedImplementation() {
+        final String[] segments = {"", ".", "..", "...", "a", "bc", ".d", "e.", "ws:"};
+        final Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            final StringBuilder sb = new StringBuilder();
+            final int count = random.nextInt(6);
+            if (random.nextBoolean()) {
+                sb.append('/');
+            }
+            for (int j = 0; j < count; j++) {
+                if (j > 0) {
+                    sb.append('/');
+                }
+                sb.append(segments[random.nextInt(segments.length)]);
+            }
+            if (random.nextInt(4) == 0) {
+                sb.append('/');
+            }
+            final String path = sb.toString();
+            assertEquals(path, splitBasedNormalize(path), ResourceUtil.normalize(path));
+        }
+    }
+
+    /**
+     * The previous implementation of {@link ResourceUtil#normalize(String)}.
+     */
+    private static String splitBasedNormalize(String path) {
+        int endPos = path.length() - 1;
+        while (endPos >= 0 && path.charAt(endPos) == '/') {
+            endPos--;
+        }
+        if (endPos == -1 && !path.isEmpty()) {
+            return "/";
+        }
+        path = path.substring(0, endPos + 1);
+        if (path.isEmpty()) {
+            return path;
+        }
+        int startPos = 0;
+        while (startPos < path.length() && path.charAt(startPos) == '/') {
+            startPos++;
+        }
+        final String[] parts = path.substring(startPos).split("/");
+        final String[] newParts = new String[parts.length];
+        int newPartsPos = 0;
+        for (final String part : parts) {
+            final int dotCount = part.chars().allMatch(c -> c == '.') ? part.length() : 0;
+            if (part.isEmpty() || dotCount == 1) {
+                // ignore
+            } else if (dotCount == 2) {
+                if (newPartsPos == 0) {
+                    return null;
+                }
+                newPartsPos--;
+            } else if (dotCount > 2) {
+                return null;
+            } else {
+                newParts[newPartsPos++] = part;
+            }
+        }
+        if (newPartsPos == 0 && startPos > 0) {
+            return "/";
+        }
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < newPartsPos; i++) {
+            if (i > 0 || startPos > 0) {
+                sb.append('/');
+            }
+            sb.append(newParts[i]);
+        }
+        return sb.toString();
+    }
+
     @Test
     public void testGetParent() {
         assertNull(ResourceUtil.getParent("/"));
@@ -420,6 +515,9 @@ public class ResourceUtilTest {
         assertEquals("b/c", ResourceUtil.getParent("b/c/d/e", 2));
         assertEquals("/", ResourceUtil.getParent("/b/c/d", 3));
         assertEquals("/", ResourceUtil.getParent("/b///", 1));
+        assertEquals("security:/", ResourceUtil.getParent("security:/b/c/d", 3));
+        assertNull(ResourceUtil.getParent("security:/b/c/d", 4));
+        assertEquals("/a", ResourceUtil.getParent("/a/./b/../c//d", 2));
     }
 
     @SuppressWarnings("deprecation")
@@ -449,4 +547,294 @@ public class ResourceUtilTest {
         assertEquals(nameWithSpecialChars, ResourceUtil.unescapeName(escapedName));
         assertFalse(escapedName.contains("."));
     }
+
+    @Test
+    public void testEscapeName() {
+        assertEquals("a\\u002Fb\\u005Cc", ResourceUtil.escapeName("a/b\\c"));
+        assertEquals("\\u002E\\u002E", ResourceUtil.escapeName(".."));
+        assertEquals("a.b", ResourceUtil.escapeName("a.b"));
+        final String name = "plain-name";
+        assertSame(name, ResourceUtil.escapeName(name));
+    }
+
+    @Test
+    public void testUnescapeName() {
+        assertEquals("a/b", ResourceUtil.unescapeName("a\\u002fb"));
+        assertEquals("a\\b", ResourceUtil.unescapeName("a\\u005Cb"));
+        assertEquals("\\/", ResourceUtil.unescapeName("\\\\u002F"));
+        assertEquals("\\u00G1\\u00", ResourceUtil.unescapeName("\\u00G1\\u00"));
+        final String name = "plain\\name";
+        assertSame(name, ResourceUtil.unescapeName(name));
+    }
+
+    @Test
+    public void testEscapeAndUnescapeNameWithBackslash() {
+        String nameWithSpecialChars = "back\\slash/\\u002F";
+        assertEquals(nameWithSpecialChars, ResourceUtil.unescapeName(ResourceUtil.escapeName(nameWithSpecialChars)));
+    }
+
+    private static Resource mockParentWithChildren(final String name, final int count) {
+        final Resource parent = mock(Resource.class);
+        when(parent.getPath()).thenReturn("/parent");
+        when(parent.getChild(name)).thenReturn(mock(Resource.class));
+        for (int i = 0; i < count; i++) {
+            when(parent.getChild(name + i)).thenReturn(mock(Resource.class));
+        }
+        return parent;
+    }
+
+    @Test
+    public void testCreateUniqueChildName() throws PersistenceException {
+        final Resource parent = mock(Resource.class);
+        assertEquals("child", ResourceUtil.createUniqueChildName(parent, "child"));
+
+        assertEquals("child0", ResourceUtil.createUniqueChildName(mockParentWithChildren("child", 0), "child"));
+        for (final int count : new int[] {1, 2, 3, 7, 8, 100, 1000}) {
+            assertEquals(
+                    "child" + count,
+                    ResourceUtil.createUniqueChildName(mockParentWithChildren("child", count), "child"));
+        }
+    }
+
+    @Test
+    public void testCreateUniqueChildNameUsesResourceResolver() throws PersistenceException {
+        final ResourceResolver resolver = mock(ResourceResolver.class);
+        final Resource parent = mockParentWithChildren("child", 10);
+        when(parent.getResourceResolver()).thenReturn(resolver);
+        when(resolver.createUniqueChildName(parent, "child")).thenReturn("child42");
+        assertEquals("child42", ResourceUtil.createUniqueChildName(parent, "child"));
+
+        // the default implementation of the resolver probes the children
+        when(resolver.createUniqueChildName(parent, "child")).thenCallRealMethod();
+        assertEquals("child10", ResourceUtil.createUniqueChildName(parent, "child"));
+    }
+
+    private static Resource mockTree(
+            final ResourceResolver resolver, final String path, final int depth, final int width) {
+        final Resource resource = mock(Resource.class);
+        when(resource.getPath()).thenReturn(path);
+        when(resource.getResourceResolver()).thenReturn(resolver);
+        final List<Resource> children = new ArrayList<>();
+        if (depth > 0) {
+            for (int i = 0; i < width; i++) {
+                children.add(mockTree(resolver, path + "/" + i, depth - 1, width));
+            }
+        }
+        when(resource.getChildren()).thenReturn(children);
+        return resource;
+    }
+
+    @Test
+    public void testBatchResourceRemoverDeletesChildrenFirst() throws PersistenceException {
+        final ResourceResolver resolver = mock(ResourceResolver.class);
+        final List<String> deleted = new ArrayList<>();
+        doAnswer(invocation -> deleted.add(((Resource) invocation.getArgument(0)).getPath()))
+                .when(resolver)
+                .delete(any(Resource.class));
+        final List<Long> progress = new ArrayList<>();
+
+        final ResourceUtil.BatchResourceRemover remover = ResourceUtil.getBatchResourceRemover(3)
+                .setProgressListener((count, elapsedNanos) -> progress.add(count));
+        remover.delete(mockTree(resolver, "/a", 2, 2));
+
+        assertEquals(Arrays.asList("/a/0/0", "/a/0/1", "/a/0", "/a/1/0", "/a/1/1", "/a/1", "/a"), deleted);
+        assertEquals(7, remover.getDeletedCount());
+        assertEquals(Arrays.asList(3L, 6L), progress);
+        verify(resolver, times(2)).commit();
+    }
+
+    @Test
+    public void testBatchResourceRemoverDeepTree() throws PersistenceException {
+        // a plain proxy, as recording this many invocations on a mock is slow
+        final ResourceResolver resolver = (ResourceResolver) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[] {ResourceResolver.class}, (proxy, method, args) -> null);
+        // build a chain deeper than a recursive deletion could handle
+        Resource resource = null;
+        final int depth = 100_000;
+        for (int i = depth; i > 0; i--) {
+            final List<Resource> children =
+                    resource == null ? Collections.emptyList() : Collections.singletonList(resource);
+            resource = new SyntheticResource(resolver, "/" + i, null) {
+                @Override
+                public Iterable<Resource> getChildren() {
+                    return children;
+                }
+            };
+        }
+        final List<Long> progress = new ArrayList<>();
+        final ResourceUtil.BatchResourceRemover remover = ResourceUtil.getBatchResourceRemover(1000)
+                .setProgressListener((count, elapsedNanos) -> progress.add(count));
+        remover.delete(resource);
+        assertEquals(depth, remover.getDeletedCount());
+        assertEquals(depth / 1000, progress.size());
+    }
+
+    @Test
+    public void testBatchResourceRemoverParallel() throws Exception {
+        final ResourceResolver resolver = mock(ResourceResolver.class);
+        final Resource root = mockTree(resolver, "/a", 2, 3);
+        final List<ResourceResolver> clones = Collections.synchronizedList(new ArrayList<>());
+        when(resolver.clone(null)).thenAnswer(invocation -> {
+            final ResourceResolver clone = mock(ResourceResolver.class);
+            when(clone.getResource(anyString())).thenAnswer(inv -> mockTree(clone, inv.getArgument(0), 0, 0));
+            clones.add(clone);
+            return clone;
+        });
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final ResourceUtil.BatchResourceRemover remover = ResourceUtil.getBatchResourceRemover(10);
+            remover.delete(root, executor);
+            assertEquals(13, remover.getDeletedCount());
+        } finally {
+            executor.shutdown();
+        }
+
+        // the tree is split down to the 9 leaves
+        assertEquals(9, clones.size());
+        for (final ResourceResolver clone : clones) {
+            verify(clone).delete(any(Resource.class));
+            verify(clone).commit();
+            verify(clone).close();
+        }
+        verify(resolver, times(4)).delete(any(Resource.class));
+        verify(resolver).delete(root);
+        verify(resolver, never()).commit();
+    }
+
+    @Test
+    public void testBatchResourceRemoverParallelSplitsLargeChild() throws Exception {
+        final ResourceResolver resolver = mock(ResourceResolver.class);
+        // a single child with many children, each with children
+        final Resource root = mock(Resource.class);
+        when(root.getPath()).thenReturn("/a");
+        when(root.getResourceResolver()).thenReturn(resolver);
+        final Resource child = mockTree(resolver, "/a/0", 2, 40);
+        when(root.getChildren()).thenReturn(Collections.singletonList(child));
+        final List<ResourceResolver> clones = Collections.synchronizedList(new ArrayList<>());
+        final List<String> subtrees = Collections.synchronizedList(new ArrayList<>());
+        when(resolver.clone(null)).thenAnswer(invocation -> {
+            final ResourceResolver clone = mock(ResourceResolver.class);
+            when(clone.getResource(anyString())).thenAnswer(inv -> {
+                subtrees.add(inv.getArgument(0));
+                return mockTree(clone, inv.getArgument(0), 0, 0);
+            });
+            clones.add(clone);
+            return clone;
+        });
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ResourceUtil.getBatchResourceRemover(10).delete(root, executor);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(16, clones.size());
+        assertEquals(40, subtrees.size());
+        assertTrue(subtrees.contains("/a/0/39"));
+        verify(resolver).delete(child);
+        verify(resolver).delete(root);
+    }
+
+    @Test
+    public void testBatchResourceRemoverParallelFailure() throws Exception {
+        final ResourceResolver resolver = mock(ResourceResolver.class);
+        final Resource root = mockTree(resolver, "/a", 1, 2);
+        final ResourceResolver clone = mock(ResourceResolver.class);
+        when(resolver.clone(null)).thenReturn(clone);
+        when(clone.getResource("/a/0")).thenAnswer(inv -> mockTree(clone, "/a/0", 0, 0));
+        doThrow(new PersistenceException("failed")).when(clone).delete(any(Resource.class));
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertThrows(PersistenceException.class, () -> ResourceUtil.getBatchResourceRemover(10)
+                    .delete(root, executor));
+        } finally {
+            executor.shutdown();
+        }
+        verify(resolver, never()).delete(root);
+    }
+
+    @Test
+    public void testGetOrCreateResourceCreatesMissingSuffix() throws PersistenceException {
+        final ResourceResolver resolver = mock(ResourceResolver.class);
+        final Resource content = mock(Resource.class);
+        when(resolver.getResource("/content")).thenReturn(content);
+        final List<String> created = new ArrayList<>();
+        when(resolver.create(any(Resource.class), anyString(), any())).thenAnswer(invocation -> {
+            final String name = invocation.getArgument(1);
+            final Map<String, Object> props = invocation.getArgument(2);
+            created.add(name + "=" + props.get(ResourceResolver.PROPERTY_RESOURCE_TYPE));
+            final Resource resource = mock(Resource.class);
+            when(resource.getName()).thenReturn(name);
+            return resource;
+        });
+
+        final Resource result =
+                ResourceUtil.getOrCreateResource(resolver, "/content/2024/01/15", "sling/day", "sling/folder", true);
+
+        assertEquals("15", result.getName());
+        assertEquals(Arrays.asList("2024=sling/folder", "01=sling/folder", "15=sling/day"), created);
+        verify(resolver, times(1)).commit();
+        verify(resolver, never()).refresh();
+        // the ancestors are looked up bottom-up until an existing one is found
+        verify(resolver, never()).getResource("/");
+    }
+
+    @Test
+    public void testGetOrCreateResourceExisting() throws PersistenceException {
+        final ResourceResolver resolver = mock(ResourceResolver.class);
+        final Resource resource = mock(Resource.class);
+        when(resolver.getResource("/content/a")).thenReturn(resource);
+        assertSame(resource, ResourceUtil.getOrCreateResource(resolver, "/content/a", (String) null, null, true));
+        verify(resolver, never()).create(any(Resource.class), anyString(), any());
+        verify(resolver, never()).commit();
+    }
+
+    @Test
+    public void testGetOrCreateResourceRetriesAfterConflict() throws PersistenceException {
+        final ResourceResolver resolver = mock(ResourceResolver.class);
+        final Resource content = mock(Resource.class);
+        final Resource folder = mock(Resource.class);
+        when(resolver.getResource("/content")).thenReturn(content);
+        // someone else created the folder concurrently
+        when(resolver.getResource("/content/folder")).thenReturn(null, folder);
+        when(resolver.create(any(Resource.class), anyString(), any())).thenAnswer(invocation -> {
+            final Resource resource = mock(Resource.class);
+            when(resource.getName()).thenReturn(invocation.getArgument(1));
+            return resource;
+        });
+        doThrow(new PersistenceException("conflict")).when(resolver).commit();
+
+        assertSame(folder, ResourceUtil.getOrCreateResource(resolver, "/content/folder", (String) null, null, true));
+        verify(resolver).revert();
+        verify(resolver).refresh();
+    }
+
+    @Test
+    public void testGetOrCreateResourceUsesResourceResolver() throws PersistenceException {
+        final ResourceResolver resolver = mock(ResourceResolver.class);
+        final Resource resource = mock(Resource.class);
+        when(resolver.getOrCreateResource(
+                        "/content/a", null, Collections.singletonMap(ResourceResolver.PROPERTY_RESOURCE_TYPE, "t")))
+                .thenReturn(resource);
+        assertSame(resource, ResourceUtil.getOrCreateResource(resolver, "/content/a", (String) null, "t", false));
+        // only the existence check, the default implementation is not used
+        verify(resolver, times(1)).getResource(anyString());
+        verify(resolver, never()).create(any(Resource.class), anyString(), any());
+    }
+
+    @Test
+    public void testGetOrCreateResourceExistingKeepsPendingChanges() throws PersistenceException {
+        final ResourceResolver resolver = mock(ResourceResolver.class);
+        final Resource resource = mock(Resource.class);
+        when(resolver.getResource("/content/a")).thenReturn(resource);
+        // unrelated changes of the caller
+        when(resolver.hasChanges()).thenReturn(true);
+        assertSame(resource, ResourceUtil.getOrCreateResource(resolver, "/content/a", (String) null, null, true));
+        verify(resolver, never()).getOrCreateResource(anyString(), any(), any());
+        verify(resolver, never()).commit();
+        verify(resolver, never()).revert();
+    }
 }
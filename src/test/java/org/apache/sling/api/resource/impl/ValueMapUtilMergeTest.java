@@ -89,6 +89,16 @@ public class ValueMapUtilMergeTest {
         assertEquals("k5-5", "35", vm.get("k5"));
     }
 
+    @Test
+    public void testPrimitiveGet() {
+        ValueMap vm = typicalVM();
+        assertEquals("k1-11", 11, vm.getInt("k1", -1));
+        assertEquals("k4-24", 24L, vm.getLong("k4", -1L));
+        assertEquals("k5-35", 35d, vm.getDouble("k5", -1d), 0d);
+        assertEquals("missing", -1, vm.getInt("random-key", -1));
+        assertTrue("missing", vm.getBoolean("random-key", true));
+    }
+
     @Test
     public void testNullGet() {
         assertNull("null get should return null", typicalVM().get(null));
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.resource.path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.sling.api.resource.ResourceUtil;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PathViewTest {
+
+    @Test
+    public void testOfNormalizes() {
+        assertEquals("/a/c", PathView.of("/a/b/../c/").toString());
+        final String path = "/a/b";
+        assertSame(path, PathView.of(path).toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOfInvalidPath() {
+        PathView.of("/..");
+    }
+
+    @Test
+    public void testParentMatchesResourceUtil() {
+        // the inputs of ResourceUtilTest
+        for (final String path : new String[] {
+            "/",
+            "/..",
+            "/b",
+            "b/c/d",
+            "/b/c/d",
+            "b",
+            "/b/..",
+            "security:/b",
+            "security:/b/c",
+            "security:/b/c/d",
+            "/a",
+            "b/c",
+            "",
+            "/b///",
+            "/a/b",
+            "b/c/d/e",
+            "/a/./b/../c//d"
+        }) {
+            final String normalized = ResourceUtil.normalize(path);
+            if (normalized == null) {
+                // PathView.of rejects paths which cannot be normalized
+                continue;
+            }
+            final PathView view = PathView.of(path);
+            final PathView parent = view.getParent();
+            assertEquals(path, ResourceUtil.getParent(path), parent == null ? null : parent.toString());
+            assertEquals(path, normalized, view.getParent(0).toString());
+            for (int level = 1; level < 5; level++) {
+                final PathView ancestor = view.getParent(level);
+                assertEquals(
+                        path + " " + level,
+                        ResourceUtil.getParent(path, level),
+                        ancestor == null ? null : ancestor.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testParentAndName() {
+        for (final String path : new String[] {"/", "/a", "/a/b", "/a/b/c", "a", "a/b", ""}) {
+            final PathView view = PathView.of(path);
+            final PathView parent = view.getParent();
+            final String expectedParent = ResourceUtil.getParent(path);
+            assertEquals(path, expectedParent, parent == null ? null : parent.toString());
+            assertEquals(path, ResourceUtil.getName(path), view.getName().toString());
+            for (int level = 0; level < 4; level++) {
+                final PathView ancestor = view.getParent(level);
+                assertEquals(
+                        path + " " + level,
+                        ResourceUtil.getParent(path, level),
+                        ancestor == null ? null : ancestor.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testSegments() {
+        final PathView view = PathView.of("/content/site/page");
+        assertEquals(3, view.getSegmentCount());
+        assertEquals(0, PathView.of("/").getSegmentCount());
+        assertEquals(2, PathView.of("a/b").getSegmentCount());
+
+        final List<String> segments = new ArrayList<>();
+        final PathView.SegmentCursor cursor = view.segments();
+        while (cursor.next()) {
+            segments.add(cursor.segment().toString());
+        }
+        assertEquals(Arrays.asList("content", "site", "page"), segments);
+
+        final PathView.SegmentCursor parentCursor = view.getParent().segments();
+        assertTrue(parentCursor.next());
+        assertTrue(parentCursor.contentEquals("content"));
+        assertTrue(parentCursor.next());
+        assertFalse(parentCursor.contentEquals("sit"));
+        assertEquals(4, parentCursor.length());
+        assertFalse(parentCursor.next());
+    }
+
+    @Test
+    public void testCharSequence() {
+        final PathView parent = PathView.of("/content/site/page").getParent();
+        assertEquals(13, parent.length());
+        assertEquals('s', parent.charAt(9));
+        assertEquals("site", parent.subSequence(9, 13).toString());
+        assertEquals(PathView.of("/content/site"), parent);
+        assertEquals("/content/site".hashCode(), parent.hashCode());
+        assertNull(PathView.of("/").getParent());
+    }
+
+    @Test
+    public void testIsAncestorOrSelfOf() {
+        final PathView view = PathView.of("/content/site");
+        assertTrue(view.isAncestorOrSelfOf("/content/site"));
+        assertTrue(view.isAncestorOrSelfOf("/content/site/page"));
+        assertFalse(view.isAncestorOrSelfOf("/content/sites"));
+        assertFalse(view.isAncestorOrSelfOf("/content"));
+        assertTrue(PathView.of("/").isAncestorOrSelfOf("/content"));
+    }
+}
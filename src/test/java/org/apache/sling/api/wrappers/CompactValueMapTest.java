@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.wrappers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CompactValueMapTest {
+
+    @Test
+    public void testBuilder() {
+        final CompactValueMap map = CompactValueMap.builder()
+                .put("a", "1")
+                .put("b", 2L)
+                .put("a", "3")
+                .build();
+        assertEquals(2, map.size());
+        assertEquals("3", map.get("a"));
+        assertEquals(Long.valueOf(2), map.get("b"));
+        assertEquals(Integer.valueOf(2), map.get("b", Integer.class));
+        assertEquals("2", map.get("b", "x"));
+        assertEquals("x", map.get("c", "x"));
+        assertNull(map.get("c"));
+        assertTrue(map.containsKey("a"));
+        assertFalse(map.containsKey("c"));
+        assertFalse(map.containsKey(null));
+        assertTrue(map.containsValue(2L));
+        assertEquals(Arrays.asList("a", "b"), new ArrayList<>(map.keySet()));
+        assertEquals(Arrays.asList("3", 2L), new ArrayList<>(map.values()));
+    }
+
+    @Test
+    public void testEqualsHashMap() {
+        final Map<String, Object> expected = new HashMap<>();
+        expected.put("a", "1");
+        expected.put("b", true);
+        final CompactValueMap map = CompactValueMap.copyOf(expected);
+        assertEquals(expected, map);
+        assertEquals(map, expected);
+        assertEquals(expected.hashCode(), map.hashCode());
+        assertEquals(expected.entrySet(), map.entrySet());
+    }
+
+    @Test
+    public void testSharedLayout() {
+        final CompactValueMap.Layout layout = CompactValueMap.Layout.of("jcr:primaryType", "jcr:title");
+        final CompactValueMap m1 = layout.newValueMap("nt:unstructured", "One");
+        final CompactValueMap m2 = CompactValueMap.builder(layout)
+                .put("jcr:primaryType", "nt:unstructured")
+                .put("jcr:title", "Two")
+                .build();
+        final CompactValueMap m3 =
+                CompactValueMap.builder(layout).put("jcr:title", "Three").build();
+        assertSame(layout, m1.getLayout());
+        assertSame(layout, m2.getLayout());
+        assertFalse(layout == m3.getLayout());
+        assertEquals("One", m1.get("jcr:title"));
+        assertEquals("Two", m2.get("jcr:title"));
+        assertEquals("Three", m3.get("jcr:title"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLayoutValueCountMismatch() {
+        CompactValueMap.Layout.of("a", "b").newValueMap("1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLayoutDuplicateKey() {
+        CompactValueMap.Layout.of("a", "b", "a");
+    }
+
+    @Test
+    public void testLargeLayout() {
+        final Map<String, Object> expected = new LinkedHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            expected.put("prop" + i, i);
+        }
+        final CompactValueMap map = CompactValueMap.copyOf(expected);
+        assertEquals(expected, map);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, map.get(new String("prop" + i)));
+        }
+        assertNull(map.get("prop100"));
+        final List<String> keys = new ArrayList<>(map.keySet());
+        assertEquals(new ArrayList<>(expected.keySet()), keys);
+    }
+
+    @Test
+    public void testEmpty() {
+        final CompactValueMap map = CompactValueMap.builder().build();
+        assertTrue(map.isEmpty());
+        assertTrue(map.keySet().isEmpty());
+        assertNull(map.get("a"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() {
+        CompactValueMap.builder().put("a", "1").build().put("b", "2");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutableKeySet() {
+        CompactValueMap.builder().put("a", "1").build().keySet().remove("a");
+    }
+}
@@ -22,6 +22,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.apache.sling.api.resource.ValueMap;
 import org.junit.Assert;
@@ -112,6 +113,26 @@ public class CompositeValueMapTest {
         Assert.assertTrue("Final map should be empty", valueMap.isEmpty());
     }
 
+    @SuppressWarnings("deprecation")
+    @Test
+    public void testViewsReflectUnderlyingMaps() throws Exception {
+        ValueMap properties = getExtendedProps();
+        ValueMap defaults = getDefaultProps();
+        CompositeValueMap valueMap = new CompositeValueMap(properties, defaults);
+        Set<String> keys = valueMap.keySet();
+        Assert.assertEquals(4, keys.size());
+
+        properties.put(PROP_NAME_DOES_NOT_EXIST, "value");
+        defaults.remove(PROP_NAME_UNCHANGED);
+
+        Assert.assertEquals(4, keys.size());
+        Assert.assertTrue(keys.contains(PROP_NAME_DOES_NOT_EXIST));
+        Assert.assertFalse(keys.contains(PROP_NAME_UNCHANGED));
+        Assert.assertEquals(
+                new HashSet<>(keys),
+                valueMap.entrySet().stream().map(Map.Entry::getKey).collect(Collectors.toSet()));
+    }
+
     private ValueMap getDefaultProps() {
         final Map<String, Object> defaultProps = new HashMap<String, Object>();
 
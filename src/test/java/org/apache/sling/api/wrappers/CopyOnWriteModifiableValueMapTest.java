@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.wrappers;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CopyOnWriteModifiableValueMapTest {
+
+    private Map<String, Object> original;
+
+    private CopyOnWriteModifiableValueMap valueMap;
+
+    @Before
+    public void setUp() {
+        original = new HashMap<>();
+        original.put("title", "Title");
+        original.put("tags", new String[] {"a", "b"});
+        original.put("count", 1);
+        valueMap = new CopyOnWriteModifiableValueMap(original);
+    }
+
+    @Test
+    public void testNoChanges() {
+        assertFalse(valueMap.hasChanges());
+        assertEquals(original, valueMap);
+        assertEquals(1, valueMap.getInt("count", -1));
+        assertTrue(valueMap.getChangedProperties().isEmpty());
+    }
+
+    @Test
+    public void testChangesAreTracked() {
+        valueMap.put("title", "New Title");
+        valueMap.put("description", "Description");
+        valueMap.remove("count");
+        valueMap.remove("missing");
+
+        assertTrue(valueMap.hasChanges());
+        assertEquals(Collections.singleton("description"), valueMap.getAddedPropertyNames());
+        assertEquals(Collections.singleton("title"), valueMap.getChangedPropertyNames());
+        assertEquals(Collections.singleton("count"), valueMap.getRemovedPropertyNames());
+        assertEquals(2, valueMap.getChangedProperties().size());
+        assertEquals("New Title", valueMap.getChangedProperties().get("title"));
+
+        // the original map is left untouched
+        assertEquals("Title", original.get("title"));
+        assertEquals(3, original.size());
+    }
+
+    @Test
+    public void testRevertedChangesAreIgnored() {
+        valueMap.put("tags", new String[] {"a", "b"});
+        valueMap.put("added", "value");
+        valueMap.remove("added");
+        valueMap.put("title", "Other");
+        valueMap.put("title", "Title");
+        assertFalse(valueMap.hasChanges());
+        assertTrue(valueMap.getAddedPropertyNames().isEmpty());
+        assertTrue(valueMap.getChangedPropertyNames().isEmpty());
+    }
+
+    @Test
+    public void testChangesThroughViews() {
+        final Iterator<Map.Entry<String, Object>> iter = valueMap.entrySet().iterator();
+        while (iter.hasNext()) {
+            final Map.Entry<String, Object> entry = iter.next();
+            if ("count".equals(entry.getKey())) {
+                iter.remove();
+            } else if ("title".equals(entry.getKey())) {
+                entry.setValue("New Title");
+            }
+        }
+        assertEquals(Collections.singleton("title"), valueMap.getChangedPropertyNames());
+        assertEquals(Collections.singleton("count"), valueMap.getRemovedPropertyNames());
+        assertEquals(3, original.size());
+    }
+
+    @Test
+    public void testClear() {
+        valueMap.put("added", "value");
+        valueMap.clear();
+        assertTrue(valueMap.isEmpty());
+        assertTrue(valueMap.getAddedPropertyNames().isEmpty());
+        assertEquals(original.keySet(), valueMap.getRemovedPropertyNames());
+    }
+
+    @Test
+    public void testClearChanges() {
+        valueMap.put("title", "New Title");
+        valueMap.clearChanges();
+        assertFalse(valueMap.hasChanges());
+        valueMap.remove("title");
+        assertEquals(Collections.singleton("title"), valueMap.getRemovedPropertyNames());
+        valueMap.put("title", "New Title");
+        assertFalse(valueMap.hasChanges());
+    }
+}
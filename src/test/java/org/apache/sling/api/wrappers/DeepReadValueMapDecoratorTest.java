@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.api.wrappers;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ValueMap;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DeepReadValueMapDecoratorTest {
+
+    private ResourceResolver resolver;
+
+    private DeepReadValueMapDecorator valueMap;
+
+    @Before
+    public void setUp() {
+        resolver = mock(ResourceResolver.class);
+        final Resource resource = mock(Resource.class);
+        when(resource.getPath()).thenReturn("/content");
+        when(resource.getResourceResolver()).thenReturn(resolver);
+
+        final Map<String, Object> childProps = new HashMap<>();
+        childProps.put("title", "Child");
+        childProps.put("count", 3);
+        final Resource child = mock(Resource.class);
+        when(child.adaptTo(ValueMap.class)).thenReturn(new ValueMapDecorator(childProps));
+        when(resolver.getResource("/content/child")).thenReturn(child);
+
+        final Map<String, Object> props = new HashMap<>();
+        props.put("title", "Parent");
+        valueMap = new DeepReadValueMapDecorator(resource, new ValueMapDecorator(props));
+    }
+
+    @Test
+    public void testDeepReadResolvesChildOnce() {
+        assertEquals("Parent", valueMap.get("title"));
+        assertEquals("Child", valueMap.get("child/title"));
+        assertEquals(Integer.valueOf(3), valueMap.get("child/count", Integer.class));
+        assertEquals(3, valueMap.getInt("child/count", -1));
+        assertNull(valueMap.get("child/missing"));
+        verify(resolver, times(1)).getResource("/content/child");
+    }
+
+    @Test
+    public void testMissingChildIsCached() {
+        assertNull(valueMap.get("other/title"));
+        assertFalse(valueMap.containsKey("other/title"));
+        verify(resolver, times(1)).getResource("/content/other");
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        for (int i = 0; i <= DeepReadValueMapDecorator.MAX_CACHED_VALUE_MAPS; i++) {
+            valueMap.get("other" + i + "/title");
+        }
+        valueMap.get("other0/title");
+        verify(resolver, times(2)).getResource("/content/other0");
+        valueMap.get("other" + DeepReadValueMapDecorator.MAX_CACHED_VALUE_MAPS + "/title");
+        verify(resolver, times(1)).getResource("/content/other" + DeepReadValueMapDecorator.MAX_CACHED_VALUE_MAPS);
+    }
+
+    @Test
+    public void testGetAll() {
+        final Map<String, Object> values =
+                valueMap.getAll(Arrays.asList("title", "child/title", "child/count", "child/missing", "other/x"));
+        assertEquals(
+                Arrays.asList("title", "child/title", "child/count"),
+                Arrays.asList(values.keySet().toArray()));
+        assertEquals("Parent", values.get("title"));
+        assertEquals("Child", values.get("child/title"));
+        assertEquals(3, values.get("child/count"));
+        verify(resolver, times(1)).getResource("/content/child");
+        verify(resolver, times(1)).getResource("/content/other");
+    }
+}
@@ -194,6 +194,44 @@ public class ValueMapDecoratorTest {
         verify(original, times(1)).get("prop1", "defValue");
     }
 
+    @Test
+    public void testPrimitiveAccessors() {
+        map.put("int", 42);
+        map.put("long", 42L);
+        map.put("double", 4.2d);
+        map.put("boolean", true);
+        map.put("string", "17");
+        map.put("intArray", new int[] {7, 8});
+        map.put("emptyArray", new long[0]);
+        map.put("invalid", "abc");
+
+        Assert.assertEquals(42, valueMap.getInt("int", -1));
+        Assert.assertEquals(42, valueMap.getInt("long", -1));
+        Assert.assertEquals(17, valueMap.getInt("string", -1));
+        Assert.assertEquals(7, valueMap.getInt("intArray", -1));
+        Assert.assertEquals(-1, valueMap.getInt("invalid", -1));
+        Assert.assertEquals(-1, valueMap.getInt("missing", -1));
+        Assert.assertEquals(42L, valueMap.getLong("long", -1L));
+        Assert.assertEquals(42L, valueMap.getLong("int", -1L));
+        Assert.assertEquals(-1L, valueMap.getLong("emptyArray", -1L));
+        Assert.assertEquals(4.2d, valueMap.getDouble("double", -1d), 0d);
+        Assert.assertEquals(17d, valueMap.getDouble("string", -1d), 0d);
+        Assert.assertTrue(valueMap.getBoolean("boolean", false));
+        Assert.assertFalse(valueMap.getBoolean("missing", false));
+    }
+
+    @Test
+    public void testPrimitiveAccessorsDelegateToValueMap() {
+        ValueMap original = mock(ValueMap.class);
+        ValueMap decorated = new ValueMapDecorator(original);
+
+        decorated.getInt("prop1", 1);
+        verify(original, times(1)).getInt("prop1", 1);
+
+        decorated.getBoolean("prop1", true);
+        verify(original, times(1)).getBoolean("prop1", true);
+    }
+
     @Test
     public void testGettingZonedDateTime() {
         String dateAsIso8601 = "2019-07-04T14:05:37.123+02:00";